@@ -0,0 +1,49 @@
+package hello.itemservice.domain.item;
+
+import hello.itemservice.domain.item.ItemJournal.FsyncPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * fsync 정책별 저장 처리량 (실제 파일에 쓰고 fsync 한다)
+ * 16 스레드가 동시에 저장한다. BATCH 는 동시에 들어온 쓰기를 fsync 한번으로 묶으므로 PER_WRITE 보다 처리량이 높아야 한다
+ * 결과는 디스크에 따라 크게 다르다. 임시 디렉터리(java.io.tmpdir)가 있는 디스크에서 측정된다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class ItemJournalBenchmark {
+
+    @Param({"PER_WRITE", "BATCH", "INTERVAL"})
+    FsyncPolicy policy;
+
+    Path directory;
+    JournaledItemStore store;
+    ItemRepository itemRepository;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("item-journal-benchmark");
+        ItemJournal journal = new ItemJournal(directory, policy, Duration.ofMillis(100));
+        store = new JournaledItemStore(new MemoryItemStore(), journal, Duration.ZERO);
+        itemRepository = new ItemRepository(store);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        store.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemRepository.save(new Item("item", 10000, 10));
+    }
+}
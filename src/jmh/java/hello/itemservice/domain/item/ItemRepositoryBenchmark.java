@@ -0,0 +1,63 @@
+package hello.itemservice.domain.item;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저장소 한건 조회 / 저장 / 수정 / 전체 조회 / 페이지 조회
+ * 단일 스레드로 측정한다. 여러 스레드에서의 측정은 ItemRepositoryContendedBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(1)
+public class ItemRepositoryBenchmark {
+
+    @Param({"memory", "columnar"})
+    String store;
+
+    @Param({"10000"})
+    int items;
+
+    ItemRepository itemRepository;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        itemRepository = new ItemRepository(switch (store) {
+            case "columnar" -> new ColumnarItemStore();
+            default -> new MemoryItemStore();
+        });
+        for (int i = 1; i <= items; i++) {
+            itemRepository.save(new Item("item" + i, 1000 + i, i % 100));
+        }
+    }
+
+    @Benchmark
+    public Item findById() {
+        return itemRepository.findById(ThreadLocalRandom.current().nextLong(1, items + 1));
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemRepository.save(new Item("itemA", 10000, 10));
+    }
+
+    @Benchmark
+    public void update() {
+        long id = ThreadLocalRandom.current().nextLong(1, items + 1);
+        itemRepository.update(id, new Item("item" + id, 2000, 20));
+    }
+
+    @Benchmark
+    public List<Item> findAll() {
+        return itemRepository.findAll();
+    }
+
+    @Benchmark
+    public ItemPage findPage() {
+        return itemRepository.findPage(ThreadLocalRandom.current().nextLong(0, items), null, ItemRepository.DEFAULT_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,11 @@
+package hello.itemservice.domain.item;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * ItemRepositoryBenchmark 와 같은 측정을 코어 수 만큼의 스레드로 동시에 한다
+ * 다른 스레드 수로 측정하려면 ./gradlew jmh 대신 jmh jar 에 -t 옵션을 준다
+ */
+@Threads(Threads.MAX)
+public class ItemRepositoryContendedBenchmark extends ItemRepositoryBenchmark {
+}
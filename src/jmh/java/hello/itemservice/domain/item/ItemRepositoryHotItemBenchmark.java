@@ -0,0 +1,58 @@
+package hello.itemservice.domain.item;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 소수의 인기 상품(hotItems 개)을 모든 스레드가 동시에 수정할때
+ * - blindUpdate : version 확인 없이 덮어쓴다 (나중 수정이 앞의 수정을 지운다)
+ * - casUpdate   : 읽고 version 으로 compare-and-set, 충돌하면 다시 읽어서 재시도한다
+ * 재시도 횟수는 Counters.conflicts 로 함께 나온다 (-prof 없이 결과 표에 보인다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class ItemRepositoryHotItemBenchmark {
+
+    @Param({"1", "16", "1024"})
+    int hotItems;
+
+    ItemRepository itemRepository;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        itemRepository = new ItemRepository();
+        for (int i = 1; i <= hotItems; i++) {
+            itemRepository.save(new Item("item" + i, 1000 + i, 10));
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long conflicts;
+    }
+
+    @Benchmark
+    public void blindUpdate() {
+        long id = ThreadLocalRandom.current().nextLong(1, hotItems + 1);
+        Item item = itemRepository.findById(id);
+        itemRepository.update(id, new Item(item.itemName(), item.price(), item.quantity() + 1));
+    }
+
+    @Benchmark
+    public void casUpdate(Counters counters) {
+        long id = ThreadLocalRandom.current().nextLong(1, hotItems + 1);
+        while (true) {
+            Item item = itemRepository.findById(id);
+            Item updateParam = new Item(item.itemName(), item.price(), item.quantity() + 1);
+            if (itemRepository.update(id, updateParam, item.version())) {
+                return;
+            }
+            counters.conflicts++;
+        }
+    }
+}
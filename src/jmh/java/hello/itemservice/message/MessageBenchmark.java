@@ -0,0 +1,108 @@
+package hello.itemservice.message;
+
+import hello.itemservice.web.validation.CachingMessageCodesResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.MessageCodesResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검증 오류 하나를 화면에 보여주기까지의 비용
+ * 1. 오류 코드 -> 메시지 코드 배열 (required.item.itemName, required.itemName, required.java.lang.String, required)
+ * 2. 메시지 코드 배열 -> messages, errors 번들에서 찾고 MessageFormat 으로 인자 치환
+ * 애플리케이션과 같이 spring.messages.basename=messages,errors 로 만든다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageBenchmark {
+
+    MessageCodesResolver codesResolver;
+    MessageCodesResolver cachingCodesResolver;
+    ResourceBundleMessageSource messageSource;
+    CompiledMessageSource compiledMessageSource;
+
+    MessageSourceResolvable required;
+    MessageSourceResolvable range;
+    MessageSourceResolvable level4;
+
+    @Setup
+    public void setup() {
+        codesResolver = new DefaultMessageCodesResolver();
+        cachingCodesResolver = new CachingMessageCodesResolver();
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasenames("messages", "errors");
+        messageSource.setDefaultEncoding("UTF-8");
+        compiledMessageSource = new CompiledMessageSource(new DefaultResourceLoader(), List.of("messages", "errors"),
+                StandardCharsets.UTF_8, true, Duration.ZERO);
+
+        //Level1 에서 찾는 경우, 인자가 있는 경우, 마지막 Level4 까지 내려가는 경우
+        required = resolvable("required", "itemName", String.class, null);
+        range = resolvable("range", "price", Integer.class, new Object[]{1000, 1000000});
+        level4 = resolvable("min", "quantity", Long.class, new Object[]{1});
+    }
+
+    private MessageSourceResolvable resolvable(String code, String field, Class<?> fieldType, Object[] args) {
+        String[] codes = codesResolver.resolveMessageCodes(code, "item", field, fieldType);
+        return new DefaultMessageSourceResolvable(codes, args);
+    }
+
+    @Benchmark
+    public String[] resolveFieldCodes() {
+        return codesResolver.resolveMessageCodes("required", "item", "itemName", String.class);
+    }
+
+    @Benchmark
+    public String[] resolveObjectCodes() {
+        return codesResolver.resolveMessageCodes("totalPriceMin", "item");
+    }
+
+    @Benchmark
+    public String[] cachedResolveFieldCodes() {
+        return cachingCodesResolver.resolveMessageCodes("required", "item", "itemName", String.class);
+    }
+
+    @Benchmark
+    public String[] cachedResolveObjectCodes() {
+        return cachingCodesResolver.resolveMessageCodes("totalPriceMin", "item");
+    }
+
+    @Benchmark
+    public String messageRequired() {
+        return messageSource.getMessage(required, Locale.KOREA);
+    }
+
+    @Benchmark
+    public String messageRangeWithArgs() {
+        return messageSource.getMessage(range, Locale.KOREA);
+    }
+
+    @Benchmark
+    public String messageFallbackToLevel4() {
+        return messageSource.getMessage(level4, Locale.ENGLISH);
+    }
+
+    @Benchmark
+    public String compiledMessageRequired() {
+        return compiledMessageSource.getMessage(required, Locale.KOREA);
+    }
+
+    @Benchmark
+    public String compiledMessageRangeWithArgs() {
+        return compiledMessageSource.getMessage(range, Locale.KOREA);
+    }
+
+    @Benchmark
+    public String compiledMessageFallbackToLevel4() {
+        return compiledMessageSource.getMessage(level4, Locale.ENGLISH);
+    }
+}
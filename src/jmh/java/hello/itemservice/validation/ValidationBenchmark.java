@@ -0,0 +1,73 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.web.validation.CompiledValidator;
+import hello.itemservice.web.validation.ItemValidator;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검증 한건의 비용
+ * valid=true 는 오류가 없는 경우, false 는 모든 필드 + 복합 룰에서 오류가 나는 경우 (오류 코드, 메시지 생성 비용 포함)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    @Param({"true", "false"})
+    boolean valid;
+
+    ItemValidator itemValidator;
+    LocalValidatorFactoryBean hibernate;
+    CompiledValidator compiled;
+
+    Item item;
+    ItemSaveForm form;
+
+    @Setup
+    public void setup() {
+        itemValidator = new ItemValidator();
+        hibernate = new LocalValidatorFactoryBean();
+        hibernate.afterPropertiesSet();
+        compiled = CompiledValidator.compile(hibernate, ItemSaveForm.class, ItemUpdateForm.class);
+
+        item = valid ? new Item("itemA", 10000, 10) : new Item(" ", 10, 10000);
+        form = new ItemSaveForm();
+        form.setItemName(item.itemName());
+        form.setPrice(item.price());
+        form.setQuantity(item.quantity());
+    }
+
+    @TearDown
+    public void tearDown() {
+        hibernate.close();
+    }
+
+    @Benchmark
+    public BindingResult itemValidator() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(item, "item");
+        itemValidator.validate(item, bindingResult);
+        return bindingResult;
+    }
+
+    @Benchmark
+    public BindingResult hibernate() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(form, "item");
+        hibernate.validate(form, bindingResult);
+        return bindingResult;
+    }
+
+    @Benchmark
+    public BindingResult compiled() {
+        BindingResult bindingResult = new BeanPropertyBindingResult(form, "item");
+        compiled.validate(form, bindingResult);
+        return bindingResult;
+    }
+}
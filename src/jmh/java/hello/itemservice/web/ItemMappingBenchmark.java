@@ -0,0 +1,60 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 폼 -> 상품 변환과 저장소 수정/조회의 요청당 할당량
+ * ./gradlew jmh -Pjmh.includes=ItemMappingBenchmark -Pjmh.profilers=gc 로 실행해서 gc.alloc.rate.norm(B/op)을 본다
+ *
+ * - toItem        : 변환한 상품이 메서드 밖으로 나가지 않으므로 JIT 가 스칼라 치환해서 할당이 없어야 한다
+ * - update        : 저장소에 들어가는 새 상품 하나만 할당된다 (수정 값으로 만든 상품은 스칼라 치환 대상)
+ * - findById      : 저장된 불변 상품을 그대로 돌려주므로 할당이 없다
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemMappingBenchmark {
+
+    ItemSaveForm saveForm;
+    ItemUpdateForm updateForm;
+    ItemRepository itemRepository;
+    long itemId;
+
+    @Setup
+    public void setup() {
+        saveForm = new ItemSaveForm();
+        saveForm.setItemName("itemA");
+        saveForm.setPrice(10000);
+        saveForm.setQuantity(10);
+
+        updateForm = new ItemUpdateForm();
+        updateForm.setItemName("itemB");
+        updateForm.setPrice(20000);
+        updateForm.setQuantity(20);
+
+        itemRepository = new ItemRepository();
+        itemId = itemRepository.save(saveForm.toItem()).id();
+    }
+
+    @Benchmark
+    public long toItem() {
+        Item item = saveForm.toItem();
+        return item.price() * (long) item.quantity();
+    }
+
+    @Benchmark
+    public void update() {
+        itemRepository.update(itemId, updateForm.toItem());
+    }
+
+    @Benchmark
+    public Item findById() {
+        return itemRepository.findById(itemId);
+    }
+}
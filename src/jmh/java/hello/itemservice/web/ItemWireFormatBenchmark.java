@@ -0,0 +1,68 @@
+package hello.itemservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import hello.itemservice.web.validation.form.BatchValidationResult;
+import hello.itemservice.web.validation.form.ItemErrorDto;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * item API 본문을 JSON / CBOR 로 쓰고 읽는 비용
+ * form   : 단건 등록 요청 (ItemSaveForm)
+ * result : 상품 100건 일괄 검증 결과 (오류 100개)
+ * 본문 크기(bytes)는 시작할때 한번 출력한다. 할당량은 -Pjmh.profilers=gc 로 함께 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemWireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    String format;
+
+    @Param({"form", "result"})
+    String payload;
+
+    ObjectMapper objectMapper;
+    Object value;
+    Class<?> type;
+    byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = format.equals("cbor") ? new CBORMapper() : new ObjectMapper();
+        if (payload.equals("form")) {
+            ItemSaveForm form = new ItemSaveForm();
+            form.setItemName("itemA");
+            form.setPrice(10000);
+            form.setQuantity(10);
+            value = form;
+            type = ItemSaveForm.class;
+        } else {
+            List<ItemErrorDto> errors = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                errors.add(new ItemErrorDto(i, "price", "Range", "가격은 1,000 ~ 1,000,000 까지 허용합니다."));
+            }
+            value = new BatchValidationResult(100, 100, errors);
+            type = BatchValidationResult.class;
+        }
+        bytes = objectMapper.writeValueAsBytes(value);
+        System.out.printf("%n%s %s : %d bytes%n", format, payload, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        return objectMapper.readValue(bytes, type);
+    }
+}
@@ -18,6 +18,9 @@ public class TestDataInit {
      */
     @PostConstruct
     public void init() {
+        if (itemRepository.count() > 0) {
+            return; //파일 저장소에 이미 데이터가 있으면 다시 넣지 않는다
+        }
         itemRepository.save(new Item("itemA", 10000, 10));
         itemRepository.save(new Item("itemB", 20000, 20));
     }
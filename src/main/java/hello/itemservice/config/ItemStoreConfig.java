@@ -0,0 +1,57 @@
+package hello.itemservice.config;
+
+import hello.itemservice.domain.item.ColumnarItemStore;
+import hello.itemservice.domain.item.ItemJournal;
+import hello.itemservice.domain.item.ItemStore;
+import hello.itemservice.domain.item.JournaledItemStore;
+import hello.itemservice.domain.item.MappedItemStore;
+import hello.itemservice.domain.item.MemoryItemStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * item.repository.store 설정으로 ItemRepository 가 사용할 저장소를 고른다
+ * memory   : Item 객체를 그대로 보관 (기본)
+ * columnar : 기본형 배열 + 이름 풀에 보관. 상품이 아주 많을때 힙 사용량이 적다
+ * mapped   : 메모리 맵 파일에 보관. 재시작해도 데이터가 남아있다 (item.repository.mapped.directory)
+ * journal  : 메모리에 보관하고 변경은 로그 + 스냅샷 파일에 남긴다 (item.repository.journal.*)
+ */
+@Configuration
+public class ItemStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "item.repository.store", havingValue = "memory", matchIfMissing = true)
+    public ItemStore memoryItemStore() {
+        return new MemoryItemStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "item.repository.store", havingValue = "columnar")
+    public ItemStore columnarItemStore() {
+        return new ColumnarItemStore();
+    }
+
+    /**
+     * MappedItemStore 는 AutoCloseable 이므로 스프링이 종료할때 close() 를 호출해준다
+     */
+    @Bean
+    @ConditionalOnProperty(name = "item.repository.store", havingValue = "mapped")
+    public ItemStore mappedItemStore(@Value("${item.repository.mapped.directory:data}") String directory) {
+        return new MappedItemStore(Path.of(directory));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "item.repository.store", havingValue = "journal")
+    public ItemStore journaledItemStore(@Value("${item.repository.journal.directory:data/journal}") String directory,
+                                        @Value("${item.repository.journal.fsync:batch}") String fsync,
+                                        @Value("${item.repository.journal.fsync-interval:100ms}") Duration fsyncInterval,
+                                        @Value("${item.repository.journal.snapshot-interval:5m}") Duration snapshotInterval) {
+        ItemJournal journal = new ItemJournal(Path.of(directory), ItemJournal.FsyncPolicy.from(fsync), fsyncInterval);
+        return new JournaledItemStore(new MemoryItemStore(), journal, snapshotInterval);
+    }
+}
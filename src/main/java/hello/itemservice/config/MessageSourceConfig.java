@@ -0,0 +1,42 @@
+package hello.itemservice.config;
+
+import hello.itemservice.message.CompiledMessageSource;
+import hello.itemservice.message.MessageSourceEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 스프링 부트의 ResourceBundleMessageSource 대신 CompiledMessageSource 를 사용한다
+ * 빈 이름이 messageSource 이면 부트의 MessageSourceAutoConfiguration 은 동작하지 않으므로 spring.messages.* 설정을 여기서 읽는다
+ */
+@Configuration
+public class MessageSourceConfig {
+
+    @Bean
+    public CompiledMessageSource messageSource(ResourceLoader resourceLoader,
+                                               @Value("${spring.messages.basename:messages}") String basename,
+                                               @Value("${spring.messages.encoding:UTF-8}") Charset encoding,
+                                               @Value("${spring.messages.fallback-to-system-locale:true}") boolean fallbackToSystemLocale,
+                                               @Value("${spring.messages.use-code-as-default-message:false}") boolean useCodeAsDefaultMessage,
+                                               @Value("${spring.messages.always-use-message-format:false}") boolean alwaysUseMessageFormat,
+                                               @Value("${item.messages.reload-interval:0s}") Duration reloadInterval) {
+        CompiledMessageSource messageSource = new CompiledMessageSource(resourceLoader,
+                Arrays.stream(StringUtils.commaDelimitedListToStringArray(basename)).map(String::trim).toList(),
+                encoding, fallbackToSystemLocale, reloadInterval);
+        messageSource.setUseCodeAsDefaultMessage(useCodeAsDefaultMessage);
+        messageSource.setAlwaysUseMessageFormat(alwaysUseMessageFormat);
+        return messageSource;
+    }
+
+    @Bean
+    public MessageSourceEndpoint messageSourceEndpoint(CompiledMessageSource messageSource) {
+        return new MessageSourceEndpoint(messageSource);
+    }
+}
@@ -0,0 +1,112 @@
+package hello.itemservice.config;
+
+import hello.itemservice.message.CompiledMessageSource;
+import hello.itemservice.metrics.ItemRepositoryMetricsAspect;
+import hello.itemservice.metrics.TimedDataBinderFactory;
+import hello.itemservice.metrics.ValidationErrorsInterceptor;
+import hello.itemservice.metrics.ValidationMetrics;
+import hello.itemservice.metrics.ValidationMetricsEndpoint;
+import hello.itemservice.web.ratelimit.WriteLimitFilter;
+import hello.itemservice.web.ratelimit.WriteLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletRequestDataBinderFactory;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * item.metrics.enabled=true 일때만 계측을 붙인다
+ * 꺼져 있으면 스프링 기본 RequestMappingHandlerAdapter, 프록시 없는 ItemRepository 를 그대로 사용하므로 추가 비용이 없다
+ */
+@Configuration
+@ConditionalOnProperty(name = "item.metrics.enabled", havingValue = "true")
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final ValidationMetrics validationMetrics;
+
+    public MetricsConfig(MeterRegistry registry) {
+        this.validationMetrics = new ValidationMetrics(registry);
+    }
+
+    @Bean
+    public ValidationMetrics validationMetrics() {
+        return validationMetrics;
+    }
+
+    /**
+     * 바인딩 / 검증 시간을 재는 WebDataBinder 를 사용하도록 RequestMappingHandlerAdapter 를 바꾼다
+     */
+    @Bean
+    public WebMvcRegistrations timedWebMvcRegistrations() {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new RequestMappingHandlerAdapter() {
+                    @Override
+                    protected ServletRequestDataBinderFactory createDataBinderFactory(List<InvocableHandlerMethod> binderMethods) {
+                        return new TimedDataBinderFactory(binderMethods, getWebBindingInitializer(), validationMetrics);
+                    }
+                };
+            }
+        };
+    }
+
+    @Bean
+    public ItemRepositoryMetricsAspect itemRepositoryMetricsAspect(MeterRegistry registry) {
+        return new ItemRepositoryMetricsAspect(registry);
+    }
+
+    @Bean
+    public ValidationMetricsEndpoint validationMetricsEndpoint(MeterRegistry registry) {
+        return new ValidationMetricsEndpoint(registry);
+    }
+
+    @Bean
+    public MeterBinder messageSourceMetrics(ObjectProvider<CompiledMessageSource> messageSource) {
+        return registry -> messageSource.ifAvailable(source -> source.registerTimers(registry));
+    }
+
+    /**
+     * item.write.requests : 상품 등록 요청 수 tag endpoint(v1~v4, api), outcome(accepted, rate_limited, shed)
+     * item.write.in-flight : 처리 중인 상품 등록 요청 수 tag endpoint
+     * 필터가 세는 LongAdder 를 읽기만 하므로 요청 처리에 비용이 더해지지 않는다
+     */
+    @Bean
+    public MeterBinder writeLimitMetrics(ObjectProvider<WriteLimitFilter> writeLimitFilter) {
+        return registry -> writeLimitFilter.ifAvailable(filter -> {
+            for (WriteLimiter limiter : filter.getLimiters()) {
+                writeRequests(registry, limiter, "accepted", WriteLimiter::getAccepted);
+                writeRequests(registry, limiter, "rate_limited", WriteLimiter::getRateLimited);
+                writeRequests(registry, limiter, "shed", WriteLimiter::getShed);
+                Gauge.builder("item.write.in-flight", limiter, WriteLimiter::getInFlight)
+                        .tag("endpoint", limiter.getName())
+                        .register(registry);
+            }
+        });
+    }
+
+    private static void writeRequests(MeterRegistry registry, WriteLimiter limiter, String outcome,
+                                      ToDoubleFunction<WriteLimiter> count) {
+        FunctionCounter.builder("item.write.requests", limiter, count)
+                .tag("endpoint", limiter.getName())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ValidationErrorsInterceptor(validationMetrics));
+    }
+}
@@ -0,0 +1,40 @@
+package hello.itemservice.config;
+
+import hello.itemservice.web.validation.CompiledValidator;
+import hello.itemservice.web.validation.ModeAwareValidator;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import jakarta.validation.ValidatorFactory;
+import org.hibernate.validator.HibernateValidatorConfiguration;
+import org.springframework.boot.validation.MessageInterpolatorFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * 폼 객체의 Bean Validation 제약을 시작할때 CompiledValidator 로 만들어 둔다
+ * 제약을 읽고 기본 메시지를 보간하는 것은 스프링이 만든 ValidatorFactory(defaultValidator) 를 그대로 사용한다
+ */
+@Configuration
+public class ValidatorConfig {
+
+    /**
+     * FAIL_FAST 용 검증기는 빈으로 등록하지 않는다
+     * jakarta.validation.Validator 빈이 두개가 되면 스프링 부트의 기본 검증기(defaultValidator)가 만들어지지 않는다
+     */
+    @Bean
+    public ModeAwareValidator modeAwareValidator(LocalValidatorFactoryBean defaultValidator, ApplicationContext applicationContext) {
+        LocalValidatorFactoryBean failFast = new LocalValidatorFactoryBean();
+        failFast.setApplicationContext(applicationContext);
+        failFast.setMessageInterpolator(new MessageInterpolatorFactory(applicationContext).getObject());
+        failFast.getValidationPropertyMap().put(HibernateValidatorConfiguration.FAIL_FAST, "true");
+        failFast.afterPropertiesSet();
+        return new ModeAwareValidator(defaultValidator, failFast);
+    }
+
+    @Bean
+    public CompiledValidator compiledValidator(ValidatorFactory validatorFactory) {
+        return CompiledValidator.compile(validatorFactory, ItemSaveForm.class, ItemUpdateForm.class);
+    }
+}
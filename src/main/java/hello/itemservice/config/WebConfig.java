@@ -0,0 +1,107 @@
+package hello.itemservice.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import hello.itemservice.web.ClientKeyResolver;
+import hello.itemservice.web.idempotency.IdempotencyCache;
+import hello.itemservice.web.idempotency.IdempotencyFilter;
+import hello.itemservice.web.validation.CachingMessageCodesResolver;
+import hello.itemservice.web.validation.ModeAwareValidator;
+import hello.itemservice.web.validation.ValidationMode;
+import hello.itemservice.web.validation.ValidationModeInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.MessageCodesResolver;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 컨트롤러의 WebDataBinder 에 적용되는 설정
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ModeAwareValidator modeAwareValidator;
+    private final ValidationMode validationMode;
+
+    public WebConfig(ModeAwareValidator modeAwareValidator,
+                     @Value("${item.validation.mode:full}") String validationMode) {
+        this.modeAwareValidator = modeAwareValidator;
+        this.validationMode = ValidationMode.from(validationMode);
+    }
+
+    /**
+     * 컨트롤러 밖에서 DataBinder 를 직접 만드는 곳(ItemRecordValidator)도 같은 캐시를 쓰도록 빈으로 등록한다
+     */
+    @Bean
+    public MessageCodesResolver messageCodesResolver() {
+        return new CachingMessageCodesResolver();
+    }
+
+    @Override
+    public MessageCodesResolver getMessageCodesResolver() {
+        return messageCodesResolver();
+    }
+
+    /**
+     * 글로벌 검증기(@Validated) : 요청의 검증 방식에 따라 fail-fast 검증기를 고른다
+     */
+    @Override
+    public Validator getValidator() {
+        return modeAwareValidator;
+    }
+
+    /**
+     * 서비스 간 호출용 바이너리 형식 (Content-Type / Accept : application/cbor)
+     * JSON 과 같은 ObjectMapper 설정(스프링 부트의 Jackson2ObjectMapperBuilder)을 쓰므로 요청/응답 객체는 그대로이다
+     * 필드명은 남지만 숫자를 이진으로 쓰고 따옴표, 구분자가 없어서 본문이 작고 읽고 쓰기가 가볍다
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public ClientKeyResolver clientKeyResolver(@Value("${item.client-header:}") String header) {
+        return new ClientKeyResolver(header);
+    }
+
+    /**
+     * 일괄 검증(/validation/api/items/validate) 전용 스레드. 공용 ForkJoinPool 을 쓰지 않아서 큰 요청이 JVM 의 다른 병렬 작업을 막지 않는다
+     * 큐가 차면 요청 스레드가 직접 검증하므로(CallerRunsPolicy) 대기 작업이 끝없이 쌓이지 않는다
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchValidationExecutor(@Value("${item.validation.batch-threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(size * 4),
+                Thread.ofPlatform().daemon().name("batch-validation-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 상품 추가는 Idempotency-Key 로 재시도를 한번만 처리한다. 바인딩 전에 걸러야 하므로 필터로 등록한다
+     * API 의 addItem 은 검증한 폼을 돌려줄 뿐 저장하지 않으므로 등록하지 않는다
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyCache idempotencyCache,
+                                                                      ClientKeyResolver clientKeyResolver) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyCache, clientKeyResolver));
+        registration.addUrlPatterns("/validation/v4/items/add");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ValidationModeInterceptor(validationMode));
+    }
+}
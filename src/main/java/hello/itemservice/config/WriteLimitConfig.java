@@ -0,0 +1,82 @@
+package hello.itemservice.config;
+
+import hello.itemservice.web.ClientKeyResolver;
+import hello.itemservice.web.ratelimit.TokenBucket;
+import hello.itemservice.web.ratelimit.WriteLimitFilter;
+import hello.itemservice.web.ratelimit.WriteLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 등록 경로(v1~v4, api)별 속도 제한 / 동시 처리 제한
+ * item.write-limit.<경로 이름>.rate, burst, max-concurrent 로 경로마다 바꿀 수 있고, 없으면 item.write-limit.default.* 를 쓴다
+ * item.write-limit.enabled=false 면 필터를 등록하지 않는다
+ * 클라이언트 버킷은 최대 max-clients 개이고, 쉬고 있는 버킷은 sweep-interval 마다 백그라운드에서 지운다
+ */
+@Configuration
+@ConditionalOnProperty(name = "item.write-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class WriteLimitConfig {
+
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "v1", "/validation/v1/items/add",
+            "v2", "/validation/v2/items/add",
+            "v3", "/validation/v3/items/add",
+            "v4", "/validation/v4/items/add",
+            "api", "/validation/api/items/add");
+
+    @Bean
+    public WriteLimitFilter writeLimitFilter(Environment environment,
+                                             @Value("${item.write-limit.max-clients:100000}") int maxClients,
+                                             ClientKeyResolver clientKeyResolver) {
+        Map<String, WriteLimiter> limiters = new LinkedHashMap<>();
+        ENDPOINTS.forEach((name, path) -> {
+            double rate = property(environment, name, "rate", Double.class, 20.0);
+            int burst = property(environment, name, "burst", Integer.class, 40);
+            int maxConcurrent = property(environment, name, "max-concurrent", Integer.class, 200);
+            limiters.put(path, new WriteLimiter(name, new TokenBucket(rate, burst, maxClients, System::nanoTime), maxConcurrent));
+        });
+        return new WriteLimitFilter(limiters, clientKeyResolver);
+    }
+
+    /**
+     * 쉬고 있는 클라이언트의 버킷을 sweep-interval 마다 지운다
+     * 요청 스레드에서 전체를 훑지 않도록 정리는 이 스레드 하나가 맡는다
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService writeLimitSweeper(WriteLimitFilter writeLimitFilter,
+                                                      @Value("${item.write-limit.sweep-interval:1s}") Duration sweepInterval) {
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("write-limit-sweep").factory());
+        long intervalMillis = sweepInterval.toMillis();
+        sweeper.scheduleWithFixedDelay(() -> writeLimitFilter.getLimiters().forEach(WriteLimiter::evictIdle),
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return sweeper;
+    }
+
+    /**
+     * 바인딩 전에 거르고, 거절된 재시도가 Idempotency-Key 캐시를 차지하지 않도록 IdempotencyFilter 보다 먼저 실행한다
+     */
+    @Bean
+    public FilterRegistrationBean<WriteLimitFilter> writeLimitFilterRegistration(WriteLimitFilter writeLimitFilter) {
+        FilterRegistrationBean<WriteLimitFilter> registration = new FilterRegistrationBean<>(writeLimitFilter);
+        registration.addUrlPatterns(ENDPOINTS.values().toArray(String[]::new));
+        registration.setOrder(0);
+        return registration;
+    }
+
+    private static <T> T property(Environment environment, String name, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("item.write-limit." + name + "." + key, type);
+        return value != null ? value : environment.getProperty("item.write-limit.default." + key, type, defaultValue);
+    }
+}
@@ -0,0 +1,319 @@
+package hello.itemservice.domain.item;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * 상품을 객체가 아니라 기본형 배열(컬럼)에 나누어 보관하는 저장소
+ *
+ * Item 객체 + Long/Integer 박싱 + 맵 엔트리로 상품 하나당 100 바이트가 넘게 들던 것을
+ * 배열 칸(slot) 몇개와 이름 바이트로 줄인다. 수백만개 상품에서 힙 사용량을 크게 줄이는 것이 목적이다
+ *
+ * - id 는 1 부터 순서대로 발급되므로 slot = id - 1 로 바로 찾는다 (해시맵이 필요 없다)
+ * - 가격, 수량은 int 배열, version 은 long 배열, 상품명은 하나의 byte 배열(이름 풀)에 UTF-8 로 이어 붙이고 위치/길이만 기록한다
+ * - null 값은 flags 의 비트로 구분한다
+ * - Item 객체는 조회할 때만 만들어서 반환한다
+ *
+ * 조회는 StampedLock 의 낙관적 읽기로 락 없이 시도하고, 쓰기와 겹쳤을 때만 읽기 락으로 다시 읽는다
+ */
+public class ColumnarItemStore implements ItemStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_NAME_CAPACITY = 16 * 1024;
+    private static final int COMPACT_THRESHOLD = 1024 * 1024; //기본값. 이 크기 이상 버려진 이름이 쌓이면 이름 풀을 정리한다
+
+    private static final byte PRESENT = 1;
+    private static final byte NAME_NULL = 1 << 1;
+    private static final byte PRICE_NULL = 1 << 2;
+    private static final byte QUANTITY_NULL = 1 << 3;
+
+    private final StampedLock lock = new StampedLock();
+
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private int[] prices = new int[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private int[] nameOffsets = new int[INITIAL_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+
+    private byte[] names = new byte[INITIAL_NAME_CAPACITY];
+    private int namesSize;
+    private int namesGarbage; //수정으로 더이상 쓰이지 않는 이름 바이트 수
+
+    private int maxSlot = -1;
+    private int count;
+
+    private final int compactThreshold;
+
+    public ColumnarItemStore() {
+        this(COMPACT_THRESHOLD);
+    }
+
+    /**
+     * @param compactThreshold 버려진 이름이 이 바이트 수를 넘고 이름 풀의 절반을 넘으면 정리한다. 테스트에서 작게 준다
+     */
+    ColumnarItemStore(int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    @Override
+    public Item get(long id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return null;
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                Item item = read(slot);
+                if (lock.validate(stamp)) {
+                    return item;
+                }
+            } catch (RuntimeException e) {
+                //쓰기 도중에 읽어서 값이 어긋난 경우이다. 아래에서 읽기 락을 잡고 다시 읽는다
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void put(Item item) {
+        int slot = slotOf(item.id());
+        if (slot < 0) {
+            throw new IllegalArgumentException("id 는 1 이상이어야 합니다. id=" + item.id());
+        }
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(slot);
+            byte flag = PRESENT;
+            if (flags[slot] == 0) {
+                count++;
+            } else if ((flags[slot] & NAME_NULL) == 0) {
+                namesGarbage += nameLengths[slot];
+            }
+
+            if (item.itemName() == null) {
+                flag |= NAME_NULL;
+                nameOffsets[slot] = 0;
+                nameLengths[slot] = 0;
+            } else {
+                byte[] bytes = item.itemName().getBytes(StandardCharsets.UTF_8);
+                nameOffsets[slot] = appendName(bytes);
+                nameLengths[slot] = bytes.length;
+            }
+            if (item.price() == null) {
+                flag |= PRICE_NULL;
+            } else {
+                prices[slot] = item.price();
+            }
+            if (item.quantity() == null) {
+                flag |= QUANTITY_NULL;
+            } else {
+                quantities[slot] = item.quantity();
+            }
+            versions[slot] = item.version();
+            flags[slot] = flag;
+            maxSlot = Math.max(maxSlot, slot);
+
+            if (namesGarbage > compactThreshold && namesGarbage > namesSize / 2) {
+                compactNames();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Item> scanAfter(long afterId, int limit) {
+        long stamp = lock.readLock();
+        try {
+            List<Item> items = new ArrayList<>(Math.min(limit, 128));
+            int from = (int) Math.clamp(afterId, 0L, Integer.MAX_VALUE); //afterId 다음 id 의 slot 은 afterId
+            for (int slot = from; slot <= maxSlot && items.size() < limit; slot++) {
+                Item item = read(slot);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            return items;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Item> scanBefore(long beforeId, int limit) {
+        long stamp = lock.readLock();
+        try {
+            List<Item> items = new ArrayList<>(Math.min(limit, 128));
+            int from = (int) Math.min(beforeId - 2, maxSlot); //beforeId 이전 id 의 slot 은 beforeId - 2
+            for (int slot = from; slot >= 0 && items.size() < limit; slot--) {
+                Item item = read(slot);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            Collections.reverse(items);
+            return items;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        long afterId = 0L;
+        while (true) {
+            //락을 오래 잡지 않도록 나누어서 읽는다
+            List<Item> chunk = scanAfter(afterId, 1024);
+            if (chunk.isEmpty()) {
+                return;
+            }
+            chunk.forEach(action);
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long maxId() {
+        long stamp = lock.readLock();
+        try {
+            return maxSlot + 1L;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            flags = new byte[INITIAL_CAPACITY];
+            prices = new int[INITIAL_CAPACITY];
+            quantities = new int[INITIAL_CAPACITY];
+            versions = new long[INITIAL_CAPACITY];
+            nameOffsets = new int[INITIAL_CAPACITY];
+            nameLengths = new int[INITIAL_CAPACITY];
+            names = new byte[INITIAL_NAME_CAPACITY];
+            namesSize = 0;
+            namesGarbage = 0;
+            maxSlot = -1;
+            count = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 이름 풀에 쓰인 바이트 수 (버려진 이름 포함). 테스트용
+     */
+    int namesSize() {
+        long stamp = lock.readLock();
+        try {
+            return namesSize;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int slotOf(long id) {
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            return -1;
+        }
+        return (int) (id - 1);
+    }
+
+    /**
+     * 낙관적 읽기 중에는 배열이 교체될 수 있으므로 배열을 지역 변수로 한번만 읽고 범위를 직접 확인한다
+     */
+    private Item read(int slot) {
+        byte[] flags = this.flags;
+        if (slot >= flags.length) {
+            return null;
+        }
+        byte flag = flags[slot];
+        if ((flag & PRESENT) == 0) {
+            return null;
+        }
+        String itemName = null;
+        if ((flag & NAME_NULL) == 0) {
+            byte[] names = this.names;
+            int offset = nameOffsets[slot];
+            int length = nameLengths[slot];
+            if (offset < 0 || length < 0 || offset + length > names.length) {
+                throw new IllegalStateException("이름 풀 범위를 벗어났습니다");
+            }
+            itemName = new String(names, offset, length, StandardCharsets.UTF_8);
+        }
+        Integer price = (flag & PRICE_NULL) == 0 ? prices[slot] : null;
+        Integer quantity = (flag & QUANTITY_NULL) == 0 ? quantities[slot] : null;
+
+        return new Item(slot + 1L, itemName, price, quantity, versions[slot]);
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < flags.length) {
+            return;
+        }
+        int capacity = (int) Math.min(Math.max((long) flags.length * 2, slot + 1L), Integer.MAX_VALUE - 8);
+        flags = Arrays.copyOf(flags, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+    }
+
+    private int appendName(byte[] bytes) {
+        if (namesSize + bytes.length > names.length) {
+            long capacity = Math.max((long) names.length * 2, (long) namesSize + bytes.length);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("이름 풀이 가득 찼습니다");
+            }
+            names = Arrays.copyOf(names, (int) capacity);
+        }
+        int offset = namesSize;
+        System.arraycopy(bytes, 0, names, offset, bytes.length);
+        namesSize += bytes.length;
+        return offset;
+    }
+
+    /**
+     * 살아있는 이름만 새 배열로 옮긴다. 쓰기 락 안에서 호출된다
+     */
+    private void compactNames() {
+        byte[] compacted = new byte[Math.max(namesSize - namesGarbage, INITIAL_NAME_CAPACITY)];
+        int size = 0;
+        for (int slot = 0; slot <= maxSlot; slot++) {
+            if ((flags[slot] & PRESENT) == 0 || (flags[slot] & NAME_NULL) != 0) {
+                continue;
+            }
+            System.arraycopy(names, nameOffsets[slot], compacted, size, nameLengths[slot]);
+            nameOffsets[slot] = size;
+            size += nameLengths[slot];
+        }
+        names = compacted;
+        namesSize = size;
+        namesGarbage = 0;
+    }
+}
@@ -3,7 +3,6 @@ package hello.itemservice.domain.item;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
 import org.hibernate.validator.constraints.Range;
 import org.hibernate.validator.constraints.ScriptAssert;
 
@@ -24,30 +23,52 @@ import org.hibernate.validator.constraints.ScriptAssert;
  * 방법 2가지
  * Validation 의 groups 기능 사용하기
  * item 을 직접 사용하지 않고. itemSaveForm, ItemUpdateForm 같은 폼 전송을 위한 별도의 모델 객체를 만들어서 사용한다.
+ *
+ * 불변 상품. 저장소는 이 객체를 그대로 보관하고 모든 조회에 같은 객체를 돌려준다 (복사하지 않는다)
+ * 수정은 값을 바꾸지 않고 새 객체로 교체한다 (withId, withVersion, ItemRepository.update)
+ *
+ * 폼에 바인딩할때는 레코드 생성자로 만들어진다 (생성자 바인딩). 타입 변환에 실패한 값은 null 로 넘어오고 typeMismatch 오류는 BindingResult 에 남는다
+ * 템플릿(${item.itemName}), th:field, Jackson 은 레코드 접근자(itemName())로 읽는다
+ *
+ * @param id      저장할때 발급된다. 저장 전에는 null
+ * @param version 저장소가 관리하는 버전. 저장할때 1 이고 수정할때마다 1 씩 오른다 (ETag, 낙관적 잠금)
+ *                저장 전과 폼 바인딩으로 만들어진 상품은 null. v1~v3 폼은 version 을 보내지 않으므로 long 이면 매 요청이 typeMismatch 가 된다
  * */
-@Data
 //@ScriptAssert(lang = "javascript", script = "_this.price * _this.quantity >=10000")
-public class Item {
+public record Item(
 
-    // @NotNull(groups = UpdateCheck.class)
-    private Long id;
+        // @NotNull(groups = UpdateCheck.class)
+        Long id,
 
-    // @NotBlank(groups = {SaveCheck.class, UpdateCheck.class}) //빈값 + 공백만 있는 경우를 허용하지 않는다
-    private String itemName;
+        // @NotBlank(groups = {SaveCheck.class, UpdateCheck.class}) //빈값 + 공백만 있는 경우를 허용하지 않는다
+        String itemName,
 
-    // @NotNull(groups = {SaveCheck.class, UpdateCheck.class}) //null 을 허용하지 않는다
-    //@Range(min = 1000, max = 1000000, groups = {SaveCheck.class, UpdateCheck.class}) //100 ~ 1000000 범위 안의 값이어야 한다
-    private Integer price;
+        // @NotNull(groups = {SaveCheck.class, UpdateCheck.class}) //null 을 허용하지 않는다
+        //@Range(min = 1000, max = 1000000, groups = {SaveCheck.class, UpdateCheck.class}) //100 ~ 1000000 범위 안의 값이어야 한다
+        Integer price,
 
-    //@NotNull(groups = {SaveCheck.class, UpdateCheck.class})@Max(value = 9999, groups = {SaveCheck.class}) //최대 9999 까지만 허용한다
-    private Integer quantity;
+        //@NotNull(groups = {SaveCheck.class, UpdateCheck.class})@Max(value = 9999, groups = {SaveCheck.class}) //최대 9999 까지만 허용한다
+        Integer quantity,
 
-    public Item() {
-    }
+        Long version) {
+
+    /**
+     * 빈 등록 폼용
+     */
+    public static final Item EMPTY = new Item(null, null, null);
 
+    /**
+     * 저장 전 상품
+     */
     public Item(String itemName, Integer price, Integer quantity) {
-        this.itemName = itemName;
-        this.price = price;
-        this.quantity = quantity;
+        this(null, itemName, price, quantity, null);
+    }
+
+    public Item withId(long id) {
+        return new Item(id, itemName, price, quantity, version);
+    }
+
+    public Item withVersion(long version) {
+        return new Item(id, itemName, price, quantity, version);
     }
 }
@@ -0,0 +1,439 @@
+package hello.itemservice.domain.item;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 상품 변경을 파일 끝에 계속 이어 쓰는 로그(write-ahead log)와 스냅샷
+ *
+ * items.log      : 마지막 스냅샷 이후의 변경(put, clear) 레코드
+ * items.snapshot : 어느 시점의 전체 상품. 스냅샷을 만들면 로그는 비운다
+ * 레코드 = 길이(int) | CRC32(int) | 내용. 내용은 MAX_RECORD_SIZE 를 넘을 수 없다 (넘으면 쓰기 전에 거절한다)
+ * 재시작할때 로그 끝의 끝까지 쓰지 못한 레코드(쓰다가 죽은 부분)는 잘라낸다. 뒤에 데이터가 더 있는 깨진 레코드는 잘라내지 않고 실패한다
+ *
+ * fsync 정책
+ * PER_WRITE : 쓰기마다 바로 fsync 한다. 가장 안전하지만 가장 느리다
+ * BATCH     : 동시에 들어온 쓰기를 모아서 한번에 쓰고 fsync 한번으로 끝낸다 (group commit). 호출한 쪽은 fsync 까지 기다린다
+ * INTERVAL  : 파일에 쓰기만 하고 바로 돌아온다. fsync 는 fsyncInterval 마다 한다. 그 사이에 장애가 나면 유실될 수 있다
+ */
+public class ItemJournal implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        PER_WRITE, BATCH, INTERVAL;
+
+        /**
+         * per-write, batch, interval 형태의 설정값을 받는다
+         */
+        public static FsyncPolicy from(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_CLEAR = 2;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+
+    private static final byte NAME_NULL = 1;
+    private static final byte PRICE_NULL = 1 << 1;
+    private static final byte QUANTITY_NULL = 1 << 2;
+
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final FsyncPolicy policy;
+    private final FileChannel log;
+    private final ReentrantLock writeLock = new ReentrantLock(); //synchronized 대신 사용한다 (가상 스레드 고정 방지)
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock enqueueLock = new ReentrantLock(); //closed 확인과 큐에 넣기를 close 와 겹치지 않게 한다
+    private final Thread flusher;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    public ItemJournal(Path directory, FsyncPolicy policy, Duration fsyncInterval) {
+        this.policy = policy;
+        this.logPath = directory.resolve("items.log");
+        this.snapshotPath = directory.resolve("items.snapshot");
+        try {
+            Files.createDirectories(directory);
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        flusher = policy == FsyncPolicy.BATCH
+                ? Thread.ofPlatform().daemon().name("item-journal-flusher").start(this::flushLoop)
+                : null;
+        if (policy == FsyncPolicy.INTERVAL) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("item-journal-fsync").factory());
+            long millis = Math.max(fsyncInterval.toMillis(), 1L);
+            scheduler.scheduleWithFixedDelay(this::forceQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * 스냅샷을 읽고 그 뒤의 로그를 이어서 적용한다. 쓰기 전에 한번만 호출한다
+     */
+    public void replay(Consumer<Item> onPut, Runnable onClear) {
+        try {
+            if (Files.exists(snapshotPath)) {
+                try (InputStream in = Files.newInputStream(snapshotPath)) {
+                    readRecords(in, Files.size(snapshotPath), false, onPut, onClear);
+                }
+            }
+            long validLength;
+            try (InputStream in = Files.newInputStream(logPath)) {
+                validLength = readRecords(in, Files.size(logPath), true, onPut, onClear);
+            }
+            writeLock.lock();
+            try {
+                log.truncate(validLength); //끝까지 쓰지 못한 레코드를 잘라낸다
+                log.position(validLength);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 레코드가 MAX_RECORD_SIZE 를 넘으면. 파일에는 아무것도 쓰지 않는다
+     */
+    public void appendPut(Item item) {
+        append(encode(OP_PUT, item));
+    }
+
+    public void appendClear() {
+        append(encode(OP_CLEAR, null));
+    }
+
+    /**
+     * source 가 넘겨주는 전체 상품으로 스냅샷을 만들고 로그를 비운다
+     * 호출하는 동안 다른 쓰기가 없도록 호출하는 쪽에서 막아야 한다
+     */
+    public void checkpoint(Consumer<Consumer<Item>> source) {
+        Path tmp = snapshotPath.resolveSibling("items.snapshot.tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         Channels.newOutputStream(channel), 64 * 1024))) {
+                source.accept(item -> {
+                    try {
+                        ByteBuffer record = encode(OP_PUT, item);
+                        out.write(record.array(), 0, record.limit());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.flush();
+                channel.force(true);
+            }
+            //스냅샷이 완성된 다음에 한번에 교체한다. 교체 직후에 죽어도 로그를 다시 적용하면 같은 결과가 된다
+            Files.move(tmp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            writeLock.lock();
+            try {
+                log.truncate(0);
+                log.position(0);
+                log.force(true);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logSize() {
+        try {
+            return log.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        enqueueLock.lock();
+        try {
+            closed = true; //이 뒤로는 큐에 들어오지 않는다
+        } finally {
+            enqueueLock.unlock();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join(); //남은 쓰기를 모두 내려쓸때까지 기다린다
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            //flusher 가 중간에 끝났으면 남은 쓰기는 실패로 끝내서 기다리는 쪽이 멈추지 않게 한다
+            List<Pending> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            IOException closedException = new IOException("journal 이 닫혔습니다");
+            remaining.forEach(pending -> pending.done().completeExceptionally(closedException));
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        writeLock.lock();
+        try {
+            log.force(true);
+            log.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(ByteBuffer record) {
+        if (closed) {
+            throw new IllegalStateException("journal 이 닫혔습니다");
+        }
+        switch (policy) {
+            case BATCH -> {
+                Pending pending = new Pending(record, new CompletableFuture<>());
+                enqueueLock.lock();
+                try {
+                    if (closed) {
+                        throw new IllegalStateException("journal 이 닫혔습니다");
+                    }
+                    queue.add(pending); //close 전에 들어간 것은 flusher 가 끝나기 전에 내려쓴다
+                } finally {
+                    enqueueLock.unlock();
+                }
+                try {
+                    pending.done().join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof IOException io) {
+                        throw new UncheckedIOException(io);
+                    }
+                    throw e;
+                }
+            }
+            case PER_WRITE -> write(List.of(record), true);
+            case INTERVAL -> write(List.of(record), false);
+        }
+    }
+
+    /**
+     * BATCH 정책의 group commit
+     * 큐에 쌓인 레코드를 한번에 꺼내서 쓰고 fsync 한번으로 모두 완료시킨다
+     */
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                write(batch.stream().map(Pending::record).toList(), true);
+                batch.forEach(pending -> pending.done().complete(null));
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof UncheckedIOException io ? io.getCause() : e;
+                batch.forEach(pending -> pending.done().completeExceptionally(cause));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ByteBuffer> records, boolean force) {
+        writeLock.lock();
+        try {
+            ByteBuffer[] buffers = records.toArray(ByteBuffer[]::new);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= log.write(buffers);
+            }
+            if (force) {
+                log.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void forceQuietly() {
+        writeLock.lock();
+        try {
+            if (log.isOpen()) {
+                log.force(false);
+            }
+        } catch (IOException e) {
+            //다음 주기에 다시 시도한다
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static ByteBuffer encode(byte op, Item item) {
+        byte[] name = item != null && item.itemName() != null
+                ? item.itemName().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int payloadSize = 1 + 8 + 1 + 4 + 4 + 4 + name.length + 8;
+        if (payloadSize > MAX_RECORD_SIZE) {
+            //다시 열때 읽을 수 없는 레코드는 쓰지 않는다
+            throw new IllegalArgumentException("상품명이 너무 깁니다. " + name.length + " 바이트 (최대 "
+                    + (MAX_RECORD_SIZE - (payloadSize - name.length)) + " 바이트)");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payloadSize);
+        buffer.position(8);
+        buffer.put(op);
+        if (item != null) {
+            byte flags = 0;
+            if (item.itemName() == null) {
+                flags |= NAME_NULL;
+            }
+            if (item.price() == null) {
+                flags |= PRICE_NULL;
+            }
+            if (item.quantity() == null) {
+                flags |= QUANTITY_NULL;
+            }
+            buffer.putLong(item.id());
+            buffer.put(flags);
+            buffer.putInt(item.price() != null ? item.price() : 0);
+            buffer.putInt(item.quantity() != null ? item.quantity() : 0);
+        } else {
+            buffer.putLong(0L).put((byte) 0).putInt(0).putInt(0);
+        }
+        buffer.putInt(name.length);
+        buffer.put(name);
+        buffer.putLong(item != null ? item.version() : 0L);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 8, payloadSize);
+        buffer.putInt(0, payloadSize);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    /**
+     * @param size          파일 크기
+     * @param tornTailAllowed 로그면 true. 마지막 레코드가 쓰다가 끊긴 경우(파일 끝에서 짧거나 CRC 가 틀림, 0 으로 채워짐)만 잘라낼 대상으로 본다
+     * @return 올바르게 읽은 바이트 수. 그 뒤는 끝까지 쓰지 못한 레코드이다
+     * @throws IllegalStateException 뒤에 데이터가 더 있는데 레코드가 깨진 경우. 그 뒤를 잘라내면 기록된 변경이 사라지므로 열지 않는다
+     */
+    private static long readRecords(InputStream input, long size, boolean tornTailAllowed,
+                                    Consumer<Item> onPut, Runnable onClear) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input, 64 * 1024));
+        long validLength = 0;
+        while (validLength < size) {
+            int length;
+            int crcValue;
+            byte[] payload;
+            try {
+                length = in.readInt();
+                crcValue = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    if (length == 0 && crcValue == 0 && onlyZeros(in)) {
+                        return tornTail(validLength, tornTailAllowed);
+                    }
+                    throw corrupted(validLength, "레코드 길이 " + length);
+                }
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                return tornTail(validLength, tornTailAllowed);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != crcValue) {
+                if (validLength + 8 + length == size) {
+                    return tornTail(validLength, tornTailAllowed);
+                }
+                throw corrupted(validLength, "CRC 불일치");
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            byte op = buffer.get();
+            if (op == OP_CLEAR) {
+                onClear.run();
+            } else if (op == OP_PUT) {
+                long id = buffer.getLong();
+                byte flags = buffer.get();
+                int price = buffer.getInt();
+                int quantity = buffer.getInt();
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                long version = buffer.getLong();
+
+                onPut.accept(new Item(id,
+                        (flags & NAME_NULL) == 0 ? new String(name, StandardCharsets.UTF_8) : null,
+                        (flags & PRICE_NULL) == 0 ? price : null,
+                        (flags & QUANTITY_NULL) == 0 ? quantity : null,
+                        version));
+            } else {
+                throw corrupted(validLength, "알 수 없는 op " + op);
+            }
+            validLength += 8 + payload.length;
+        }
+        return validLength;
+    }
+
+    private static long tornTail(long validLength, boolean tornTailAllowed) {
+        if (!tornTailAllowed) {
+            throw corrupted(validLength, "파일이 중간에 끝남");
+        }
+        return validLength;
+    }
+
+    private static IllegalStateException corrupted(long offset, String reason) {
+        return new IllegalStateException("journal 레코드가 손상되었습니다. offset=" + offset + ", " + reason);
+    }
+
+    private static boolean onlyZeros(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private record Pending(ByteBuffer record, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,21 @@
+package hello.itemservice.domain.item;
+
+import java.util.List;
+
+/**
+ * 키셋(keyset) 페이지 조회 결과
+ * offset 대신 마지막으로 본 id 를 커서로 사용하므로, 몇번째 페이지든 조회 비용이 같다
+ *
+ * @param prevCursor 이전 페이지가 있으면 before 로 넘길 id, 없으면 null
+ * @param nextCursor 다음 페이지가 있으면 after 로 넘길 id, 없으면 null
+ */
+public record ItemPage(List<Item> items, Long prevCursor, Long nextCursor, int size) {
+
+    public boolean hasPrev() {
+        return prevCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
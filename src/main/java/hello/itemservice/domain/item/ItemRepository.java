@@ -1,41 +1,413 @@
 package hello.itemservice.domain.item;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 
+/**
+ * 상품 저장은 ItemStore 에 맡기고, 여기서는 id 발급, 스냅샷, 페이지 조회, 보조 인덱스를 담당한다
+ * 어떤 ItemStore 를 쓸지는 item.repository.store 설정으로 고른다 (ItemStoreConfig)
+ * 파일 저장소를 다시 연 경우 id 는 저장된 가장 큰 id 다음부터 발급하고, 보조 인덱스는 백그라운드에서 다시 만든다
+ *
+ * 가격, 상품명은 정렬된 보조 인덱스(price -> id, itemName -> id)를 따로 유지한다
+ * 같은 상품에 대한 쓰기는 id 별로 나눈 락(lock striping)으로 순서를 보장해서 store 와 인덱스가 어긋나지 않게 한다
+ * 조회는 락을 잡지 않는다. 인덱스에서 찾은 id 는 store 의 현재 값으로 다시 확인한다
+ *
+ * 보조 인덱스는 힙(ConcurrentSkipListSet)에 있고 파일로 남기지 않는다. 상품 하나에 대략 200 바이트 + 상품명 만큼 차지하고,
+ * 파일 저장소를 다시 열면 store 전체를 한번 읽어서 다시 만든다 (상품 수에 비례하는 시간, 그 동안 검색은 전체를 훑는다)
+ * 힙과 재시작 시간이 상품 수에 따라 끝없이 늘지 않도록 상품이 indexMaxItems(item.repository.index.max-items) 를 넘으면
+ * 인덱스를 만들지 않고(이미 있으면 버리고) 검색은 전체를 훑는다
+ *
+ * 상품마다 version(저장 1, 수정마다 +1)을 store 에 함께 보관하고, 저장소 전체의 변경은 catalogVersion 으로 센다
+ * 화면에서는 이 두 값으로 ETag 를 만들어 변경이 없으면 304 로 응답한다
+ */
+@Slf4j
 @Repository
 public class ItemRepository {
 
-    private static final Map<Long, Item> store = new HashMap<>(); //static
-    private static long sequence = 0L; //static
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_INDEX_MAX_ITEMS = 1_000_000;
 
+    private final ItemStore store;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * findAll() 용 불변 스냅샷
+     * 요청마다 store 전체를 복사하지 않고, 저장소가 변경되어 version 이 바뀐 뒤 처음 조회할 때만 다시 만든다
+     */
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0L, List.of());
+    private volatile long lastModified = System.currentTimeMillis();
+
+    //보조 인덱스
+    private final NavigableSet<PriceKey> priceIndex = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt(PriceKey::price).thenComparingLong(PriceKey::id));
+    private final NavigableSet<NameKey> nameIndex = new ConcurrentSkipListSet<>(
+            Comparator.comparing(NameKey::itemName).thenComparingLong(NameKey::id));
+
+    private final int indexMaxItems;
+    private volatile boolean indexEnabled = true; //상품 수가 indexMaxItems 를 넘으면 false
+    private volatile boolean indexReady;
+
+    private static final long ANY_VERSION = -1L;
+
+    private static final int LOCK_STRIPES = 64; //2의 제곱수
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ItemRepository() {
+        this(new MemoryItemStore());
+    }
+
+    public ItemRepository(ItemStore store) {
+        this(store, DEFAULT_INDEX_MAX_ITEMS);
+    }
+
+    @Autowired
+    public ItemRepository(ItemStore store, @Value("${item.repository.index.max-items:1000000}") int indexMaxItems) {
+        this.store = store;
+        this.indexMaxItems = indexMaxItems;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        //파일 저장소를 다시 연 경우 이어서 id 를 발급한다
+        sequence.set(store.maxId());
+        int size = store.size();
+        if (size == 0) {
+            indexReady = true;
+        } else if (size > indexMaxItems) {
+            indexEnabled = false;
+            log.warn("상품 수({})가 item.repository.index.max-items({}) 를 넘어서 보조 인덱스를 만들지 않습니다. 검색은 전체를 훑습니다",
+                    size, indexMaxItems);
+        } else {
+            //저장소는 바로 사용할 수 있고, 보조 인덱스는 백그라운드에서 만든다. 그 동안 검색은 전체를 훑는다
+            Thread.ofPlatform().daemon().name("item-index-rebuild").start(this::rebuildIndexes);
+        }
+    }
+
+    /**
+     * 검색에 보조 인덱스를 쓰고 있으면 true. 다시 만드는 중이거나 상품이 indexMaxItems 를 넘으면 false
+     */
+    public boolean isIndexReady() {
+        return indexReady;
+    }
+
+    private void rebuildIndexes() {
+        long start = System.nanoTime();
+        store.forEach(item -> {
+            if (!indexEnabled) {
+                return;
+            }
+            ReentrantLock lock = lockFor(item.id());
+            lock.lock();
+            try {
+                Item current = store.get(item.id()); //그 사이에 수정되었을 수 있으므로 현재 값으로 만든다
+                if (current != null) {
+                    addIndex(current);
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        indexReady = indexEnabled;
+        log.info("보조 인덱스 생성 완료. items={}, {}ms", store.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 받은 상품은 바꾸지 않는다. id, version 이 정해진 새 상품을 돌려준다
+     */
     public Item save(Item item) {
-        item.setId(++sequence);
-        store.put(item.getId(), item);
-        return item;
+        Item savedItem = insert(item);
+        changed();
+        return savedItem;
+    }
+
+    /**
+     * 여러건을 한번에 저장한다. 스냅샷 version 은 한번만 올린다
+     */
+    public List<Item> saveAll(List<Item> items) {
+        List<Item> savedItems = new ArrayList<>(items.size());
+        for (Item item : items) {
+            savedItems.add(insert(item));
+        }
+        changed();
+        return savedItems;
+    }
+
+    private Item insert(Item item) {
+        Item savedItem = new Item(sequence.incrementAndGet(), item.itemName(), item.price(), item.quantity(), 1L);
+        ReentrantLock lock = lockFor(savedItem.id());
+        lock.lock();
+        try {
+            store.put(savedItem);
+            addIndex(savedItem);
+        } finally {
+            lock.unlock();
+        }
+        if (indexEnabled && savedItem.id() > indexMaxItems && store.size() > indexMaxItems) {
+            disableIndexes();
+        }
+        return savedItem;
+    }
+
+    private void disableIndexes() {
+        indexEnabled = false;
+        indexReady = false;
+        priceIndex.clear();
+        nameIndex.clear();
+        log.warn("상품 수가 item.repository.index.max-items({}) 를 넘어서 보조 인덱스를 버립니다. 검색은 전체를 훑습니다", indexMaxItems);
+    }
+
+    /**
+     * 저장소 전체의 변경 횟수. save, saveAll, update, clearStore 마다 오른다
+     */
+    public long catalogVersion() {
+        return version.get();
+    }
+
+    /**
+     * 마지막으로 변경된 시각 (epoch millis). 변경이 없었으면 시작한 시각이다
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public int count() {
+        return store.size();
     }
 
     public Item findById(Long id) {
+        if (id == null) {
+            return null;
+        }
         return store.get(id);
     }
 
+    /**
+     * 반환되는 리스트는 수정할 수 없다. 여러 요청이 같은 리스트를 공유한다
+     */
     public List<Item> findAll() {
-        return new ArrayList<>(store.values());
+        Snapshot current = snapshot;
+        long currentVersion = version.get();
+        if (current.version() == currentVersion) {
+            return current.items();
+        }
+        //복사 도중 변경이 일어나면 이 스냅샷은 예전 version 으로 남고, 다음 조회에서 다시 만들어진다
+        List<Item> items = new ArrayList<>(store.size());
+        store.forEach(items::add);
+        items = List.copyOf(items);
+        snapshot = new Snapshot(currentVersion, items);
+        return items;
+    }
+
+    /**
+     * id 순서로 size 개를 조회한다
+     * afterId 가 있으면 그 다음 id 부터, beforeId 가 있으면 그 이전 id 까지 조회한다. 둘다 없으면 첫 페이지이다
+     */
+    public ItemPage findPage(Long afterId, Long beforeId, int size) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<Item> items = beforeId != null
+                ? store.scanBefore(beforeId, limit)
+                : store.scanAfter(afterId != null ? afterId : 0L, limit);
+
+        if (items.isEmpty()) {
+            return new ItemPage(items, null, null, limit);
+        }
+        Long firstId = items.get(0).id();
+        Long lastId = items.get(items.size() - 1).id();
+        Long prevCursor = store.scanBefore(firstId, 1).isEmpty() ? null : firstId;
+        Long nextCursor = store.scanAfter(lastId, 1).isEmpty() ? null : lastId;
+        return new ItemPage(items, prevCursor, nextCursor, limit);
+    }
+
+    /**
+     * 가격이 minPrice 이상 maxPrice 이하인 상품을 가격 순서로 최대 size 개 조회한다
+     */
+    public List<Item> findByPriceBetween(int minPrice, int maxPrice, int size) {
+        if (minPrice > maxPrice) {
+            return List.of();
+        }
+        Predicate<Item> condition = item -> item.price() != null && item.price() >= minPrice && item.price() <= maxPrice;
+        if (!indexReady) {
+            return scan(condition, Comparator.comparing(Item::price), size);
+        }
+        NavigableSet<PriceKey> range = priceIndex.subSet(
+                new PriceKey(minPrice, Long.MIN_VALUE), true,
+                new PriceKey(maxPrice, Long.MAX_VALUE), true);
+        return lookup(range.stream().map(PriceKey::id).iterator(), size, condition);
+    }
+
+    /**
+     * 상품명이 prefix 로 시작하는 상품을 이름 순서로 최대 size 개 조회한다
+     */
+    public List<Item> findByItemNameStartingWith(String prefix, int size) {
+        Predicate<Item> condition = item -> item.itemName() != null && item.itemName().startsWith(prefix);
+        if (!indexReady) {
+            return scan(condition, Comparator.comparing(Item::itemName), size);
+        }
+        return lookup(nameRange(prefix), size, condition);
+    }
+
+    /**
+     * 상품명이 prefix 로 시작하고 가격이 minPrice 이상 maxPrice 이하인 상품을 이름 순서로 최대 size 개 조회한다
+     * 상품명 인덱스를 따라가면서 가격으로 거른다. 가격이 맞는 상품이 size 개 모이거나 prefix 범위가 끝날때까지 읽는다
+     */
+    public List<Item> findByItemNameStartingWith(String prefix, int minPrice, int maxPrice, int size) {
+        if (minPrice > maxPrice) {
+            return List.of();
+        }
+        Predicate<Item> condition = item -> item.itemName() != null && item.itemName().startsWith(prefix)
+                && item.price() != null && item.price() >= minPrice && item.price() <= maxPrice;
+        if (!indexReady) {
+            return scan(condition, Comparator.comparing(Item::itemName), size);
+        }
+        return lookup(nameRange(prefix), size, condition);
+    }
+
+    private Iterator<Long> nameRange(String prefix) {
+        //prefix 로 시작하는 문자열은 모두 [prefix, prefix + Character.MAX_VALUE) 범위 안에 정렬된다
+        NavigableSet<NameKey> range = nameIndex.subSet(
+                new NameKey(prefix, Long.MIN_VALUE), true,
+                new NameKey(prefix + Character.MAX_VALUE, Long.MIN_VALUE), false);
+        return range.stream().map(NameKey::id).iterator();
+    }
+
+    /**
+     * 인덱스와 store 사이에는 아주 짧은 틈이 있을 수 있으므로, 찾은 상품이 조건에 맞는지 현재 값으로 다시 확인한다
+     */
+    private List<Item> lookup(Iterator<Long> ids, int size, Predicate<Item> condition) {
+        int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<Item> items = new ArrayList<>(limit);
+        while (ids.hasNext() && items.size() < limit) {
+            Item item = store.get(ids.next());
+            if (item != null && condition.test(item)) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 인덱스를 만드는 중일때 사용한다. 전체를 훑어서 인덱스와 같은 순서(값, id)로 정렬한다
+     */
+    private List<Item> scan(Predicate<Item> condition, Comparator<Item> order, int size) {
+        List<Item> items = new ArrayList<>();
+        store.forEach(item -> {
+            if (condition.test(item)) {
+                items.add(item);
+            }
+        });
+        items.sort(order.thenComparing(Item::id));
+        return items.subList(0, Math.min(items.size(), Math.clamp(size, 1, MAX_PAGE_SIZE)));
     }
 
+    /**
+     * 상품은 불변이므로 새 상품을 만들어서 한번에 교체한다. 읽는 쪽은 교체 전이나 후의 상품 하나만 본다
+     * 가격/상품명이 바뀌었으면 인덱스도 함께 바꾼다
+     */
     public void update(Long itemId, Item updateParam) {
-        Item findItem = findById(itemId);
-        findItem.setItemName(updateParam.getItemName());
-        findItem.setPrice(updateParam.getPrice());
-        findItem.setQuantity(updateParam.getQuantity());
+        replace(itemId, updateParam, ANY_VERSION);
+    }
+
+    /**
+     * 낙관적 잠금. 저장된 version 이 expectedVersion 과 같을때만 수정한다 (compare-and-set)
+     * version 이 이미 다르면 락을 잡지 않고 바로 실패한다. 같으면 id 별 락 안에서 한번 더 확인하고 교체한다
+     *
+     * @return 수정했으면 true. 그 사이에 다른 수정이 있었거나 상품이 없으면 false
+     */
+    public boolean update(Long itemId, Item updateParam, long expectedVersion) {
+        Item current = store.get(itemId);
+        if (current == null || current.version() != expectedVersion) {
+            return false;
+        }
+        return replace(itemId, updateParam, expectedVersion);
     }
 
+    private boolean replace(Long itemId, Item updateParam, long expectedVersion) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            Item findItem = store.get(itemId);
+            if (findItem == null) {
+                return false;
+            }
+            if (expectedVersion != ANY_VERSION && findItem.version() != expectedVersion) {
+                return false;
+            }
+            Item updatedItem = new Item(itemId, updateParam.itemName(), updateParam.price(), updateParam.quantity(),
+                    findItem.version() + 1);
+            store.put(updatedItem);
+            removeIndex(findItem);
+            addIndex(updatedItem);
+        } finally {
+            lock.unlock();
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * 테스트용. id 도 1 부터 다시 발급한다
+     */
     public void clearStore() {
         store.clear();
+        priceIndex.clear();
+        nameIndex.clear();
+        indexEnabled = true;
+        indexReady = true;
+        sequence.set(0L);
+        changed();
+    }
+
+    private void changed() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private void addIndex(Item item) {
+        if (!indexEnabled) {
+            return;
+        }
+        if (item.price() != null) {
+            priceIndex.add(new PriceKey(item.price(), item.id()));
+        }
+        if (item.itemName() != null) {
+            nameIndex.add(new NameKey(item.itemName(), item.id()));
+        }
+    }
+
+    private void removeIndex(Item item) {
+        if (item.price() != null) {
+            priceIndex.remove(new PriceKey(item.price(), item.id()));
+        }
+        if (item.itemName() != null) {
+            nameIndex.remove(new NameKey(item.itemName(), item.id()));
+        }
+    }
+
+    private record Snapshot(long version, List<Item> items) {
+    }
+
+    private record PriceKey(int price, long id) {
+    }
+
+    private record NameKey(String itemName, long id) {
     }
 
 }
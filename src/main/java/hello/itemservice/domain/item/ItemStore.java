@@ -0,0 +1,46 @@
+package hello.itemservice.domain.item;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ItemRepository 가 실제로 상품을 보관하는 저장 공간
+ * 인덱스, 스냅샷, 페이지 조회 같은 기능은 ItemRepository 가 담당하고, 저장 방식만 구현체마다 다르다
+ *
+ * id 는 ItemRepository 가 1 부터 순서대로 발급한다. 구현체는 이 점을 이용해서 id 로 바로 위치를 찾을 수 있다
+ * 모든 메서드는 여러 스레드에서 동시에 호출될 수 있다
+ */
+public interface ItemStore {
+
+    Item get(long id);
+
+    /**
+     * 같은 id 가 있으면 교체한다
+     */
+    void put(Item item);
+
+    /**
+     * afterId 보다 큰 id 를 오름차순으로 최대 limit 개
+     */
+    List<Item> scanAfter(long afterId, int limit);
+
+    /**
+     * beforeId 보다 작은 id 중 가장 큰 것부터 최대 limit 개를 오름차순으로
+     */
+    List<Item> scanBefore(long beforeId, int limit);
+
+    /**
+     * id 오름차순으로 전체 순회
+     */
+    void forEach(Consumer<? super Item> action);
+
+    int size();
+
+    /**
+     * 저장된 가장 큰 id, 비어 있으면 0
+     * 파일 같은 영구 저장소를 다시 열었을때 ItemRepository 가 이 다음 번호부터 id 를 발급한다
+     */
+    long maxId();
+
+    void clear();
+}
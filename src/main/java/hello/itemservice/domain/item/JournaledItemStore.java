@@ -0,0 +1,136 @@
+package hello.itemservice.domain.item;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 메모리 저장소 앞에 ItemJournal 을 붙여서 변경을 파일에 남기는 저장소
+ *
+ * 생성될때 스냅샷 + 로그를 다시 적용해서 이전 상태를 복구한다 (TestDataInit 대신)
+ * 쓰기는 로그에 먼저 남긴 뒤(fsync 정책에 따라) 메모리에 반영하고, 조회는 메모리에서 바로 한다
+ * snapshotInterval 마다 전체를 스냅샷으로 저장하고 로그를 비워서 로그가 끝없이 커지지 않게 한다
+ */
+@Slf4j
+public class JournaledItemStore implements ItemStore, AutoCloseable {
+
+    private final ItemStore delegate;
+    private final ItemJournal journal;
+
+    //쓰기는 읽기 락(여러 스레드가 동시에), 스냅샷은 쓰기 락(혼자)을 잡는다
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService scheduler;
+
+    public JournaledItemStore(ItemStore delegate, ItemJournal journal, Duration snapshotInterval) {
+        this.delegate = delegate;
+        this.journal = journal;
+        journal.replay(delegate::put, delegate::clear);
+
+        if (snapshotInterval != null && !snapshotInterval.isZero() && !snapshotInterval.isNegative()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("item-journal-snapshot").factory());
+            long millis = snapshotInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::checkpointIfNeeded, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public Item get(long id) {
+        return delegate.get(id);
+    }
+
+    @Override
+    public void put(Item item) {
+        checkpointLock.readLock().lock();
+        try {
+            journal.appendPut(item);
+            delegate.put(item);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> scanAfter(long afterId, int limit) {
+        return delegate.scanAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Item> scanBefore(long beforeId, int limit) {
+        return delegate.scanBefore(beforeId, limit);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void clear() {
+        checkpointLock.readLock().lock();
+        try {
+            journal.appendClear();
+            delegate.clear();
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 현재 상태를 스냅샷으로 저장하고 로그를 비운다
+     */
+    public void checkpoint() {
+        checkpointLock.writeLock().lock();
+        try {
+            journal.checkpoint(delegate::forEach);
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    private void checkpointIfNeeded() {
+        try {
+            if (journal.logSize() > 0) {
+                checkpoint();
+            }
+        } catch (RuntimeException e) {
+            //예외가 밖으로 나가면 스케줄이 멈추므로 기록만 하고 다음 주기에 다시 시도한다
+            log.warn("스냅샷 저장 실패", e);
+        }
+    }
+
+    /**
+     * 종료할때 스냅샷을 만들어 두면 다음 시작때 로그를 다시 적용할 필요가 없다
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        checkpointLock.writeLock().lock();
+        try {
+            journal.checkpoint(delegate::forEach);
+            journal.close();
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+}
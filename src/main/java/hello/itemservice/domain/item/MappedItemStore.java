@@ -0,0 +1,469 @@
+package hello.itemservice.domain.item;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * 상품을 메모리 맵 파일(힙 밖)에 보관하는 저장소
+ *
+ * items.dat : 헤더(64 바이트) + 고정 길이 레코드(32 바이트). slot = id - 1 위치에 있다
+ *   레코드 = flags(int) | price(int) | quantity(int) | 이름 길이(int) | 이름 위치(long) | version(long)
+ * names.dat : 상품명을 UTF-8 로 이어 붙인 영역. 수정하면 새 이름을 뒤에 붙이고 예전 이름은 버려진다
+ *   버려진 크기가 살아있는 크기(최소 64KB)보다 커지면 살아있는 이름만 새 파일에 옮겨 담아 줄인다 (compactNames)
+ *   옮기는 비용은 그 전에 버려진 만큼의 쓰기에 나누어지므로 쓰기 한번에 평균 O(1) 이다
+ *
+ * 데이터는 OS 페이지 캐시가 들고 있으므로 JVM 힙은 작게 유지되고,
+ * 재시작할때는 파일을 다시 매핑만 하면 되므로 크기와 상관없이 바로 열린다 (다시 읽어 들이지 않는다)
+ * 단, ItemRepository 의 보조 인덱스는 힙에 있으므로 재시작하면 백그라운드에서 다시 만든다 (ItemRepository 참고)
+ * 2GB 가 넘는 파일도 매핑할 수 있도록 MappedByteBuffer 대신 MemorySegment 를 사용한다
+ *
+ * 변경 내용은 OS 가 알아서 디스크에 내려쓰고, close() 할때 force() 로 한번 더 내려쓴다
+ * 비정상 종료시 마지막 변경이 유실될 수 있다
+ */
+public class MappedItemStore implements ItemStore, AutoCloseable {
+
+    private static final int MAGIC = 0x49544D53; //ITMS
+    private static final int FORMAT_VERSION = 1;
+
+    private static final long HEADER_SIZE = 64;
+    private static final long H_MAGIC = 0;
+    private static final long H_FORMAT = 4;
+    private static final long H_MAX_ID = 8;
+    private static final long H_COUNT = 16;
+    private static final long H_NAMES_SIZE = 24;
+    private static final long H_NAMES_LIVE = 32;
+    private static final long H_COMPACTING = 40;
+
+    private static final String ITEMS_FILE = "items.dat";
+    private static final String NAMES_FILE = "names.dat";
+    private static final String NAMES_COMPACT_FILE = "names.dat.compact";
+
+    private static final long RECORD_SIZE = 32;
+    private static final long R_FLAGS = 0;
+    private static final long R_PRICE = 4;
+    private static final long R_QUANTITY = 8;
+    private static final long R_NAME_LENGTH = 12;
+    private static final long R_NAME_OFFSET = 16;
+    private static final long R_VERSION = 24;
+
+    private static final long INITIAL_RECORDS = 1024;
+    private static final long INITIAL_NAMES_SIZE = 64 * 1024;
+
+    private static final int PRESENT = 1;
+    private static final int NAME_NULL = 1 << 1;
+    private static final int PRICE_NULL = 1 << 2;
+    private static final int QUANTITY_NULL = 1 << 3;
+
+    //파일 형식이 플랫폼에 따라 달라지지 않도록 바이트 순서를 고정한다
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final StampedLock lock = new StampedLock();
+    private final Path directory;
+    private final FileChannel itemsChannel;
+    private FileChannel namesChannel; //compactNames 에서 새 파일로 바뀐다
+
+    private MemorySegment items;
+    private MemorySegment names;
+
+    private long maxId;
+    private long count;
+    private long namesSize;
+    private long namesLive; //names.dat 중 레코드가 가리키고 있는 바이트 수
+
+    public MappedItemStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            itemsChannel = FileChannel.open(directory.resolve(ITEMS_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            namesChannel = FileChannel.open(directory.resolve(NAMES_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            if (itemsChannel.size() == 0) {
+                items = map(itemsChannel, HEADER_SIZE + INITIAL_RECORDS * RECORD_SIZE);
+                names = map(namesChannel, INITIAL_NAMES_SIZE);
+                items.set(INT, H_MAGIC, MAGIC);
+                items.set(INT, H_FORMAT, FORMAT_VERSION);
+                writeHeader();
+            } else {
+                items = map(itemsChannel, itemsChannel.size());
+                names = map(namesChannel, Math.max(namesChannel.size(), INITIAL_NAMES_SIZE));
+                if (items.get(INT, H_MAGIC) != MAGIC || items.get(INT, H_FORMAT) != FORMAT_VERSION) {
+                    throw new IllegalStateException("상품 저장 파일 형식이 올바르지 않습니다. directory=" + directory);
+                }
+                maxId = items.get(LONG, H_MAX_ID);
+                count = items.get(LONG, H_COUNT);
+                namesSize = items.get(LONG, H_NAMES_SIZE);
+                namesLive = items.get(LONG, H_NAMES_LIVE);
+                if (items.get(INT, H_COMPACTING) != 0) {
+                    recoverCompaction();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Item get(long id) {
+        if (id < 1) {
+            return null;
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                Item item = read(id);
+                if (lock.validate(stamp)) {
+                    return item;
+                }
+            } catch (RuntimeException e) {
+                //쓰기 도중(파일 확장 등)에 읽어서 값이 어긋난 경우이다. 아래에서 읽기 락을 잡고 다시 읽는다
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void put(Item item) {
+        long id = item.id();
+        if (id < 1) {
+            throw new IllegalArgumentException("id 는 1 이상이어야 합니다. id=" + id);
+        }
+        long stamp = lock.writeLock();
+        try {
+            long offset = recordOffset(id);
+            ensureItemsCapacity(offset + RECORD_SIZE);
+            int oldFlags = items.get(INT, offset + R_FLAGS);
+            boolean isNew = (oldFlags & PRESENT) == 0;
+            if (!isNew && (oldFlags & NAME_NULL) == 0) {
+                namesLive -= items.get(INT, offset + R_NAME_LENGTH); //예전 이름은 버려진다
+            }
+
+            int flags = PRESENT;
+            if (item.itemName() == null) {
+                flags |= NAME_NULL;
+                items.set(INT, offset + R_NAME_LENGTH, 0);
+                items.set(LONG, offset + R_NAME_OFFSET, 0L);
+            } else {
+                byte[] bytes = item.itemName().getBytes(StandardCharsets.UTF_8);
+                long nameOffset = appendName(bytes);
+                items.set(INT, offset + R_NAME_LENGTH, bytes.length);
+                items.set(LONG, offset + R_NAME_OFFSET, nameOffset);
+                namesLive += bytes.length;
+            }
+            if (item.price() == null) {
+                flags |= PRICE_NULL;
+            } else {
+                items.set(INT, offset + R_PRICE, item.price());
+            }
+            if (item.quantity() == null) {
+                flags |= QUANTITY_NULL;
+            } else {
+                items.set(INT, offset + R_QUANTITY, item.quantity());
+            }
+            items.set(LONG, offset + R_VERSION, item.version());
+            items.set(INT, offset + R_FLAGS, flags); //flags 를 마지막에 써서 레코드를 완성한다
+
+            if (isNew) {
+                count++;
+            }
+            maxId = Math.max(maxId, id);
+            writeHeader();
+
+            if (namesSize - namesLive > Math.max(namesLive, INITIAL_NAMES_SIZE)) {
+                compactNamesLocked();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * names.dat 에서 버려진 이름을 지운다. 버려진 크기가 커지면 put 에서 알아서 호출한다
+     */
+    public void compactNames() {
+        long stamp = lock.writeLock();
+        try {
+            compactNamesLocked();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Item> scanAfter(long afterId, int limit) {
+        long stamp = lock.readLock();
+        try {
+            List<Item> result = new ArrayList<>(Math.min(limit, 128));
+            for (long id = Math.max(afterId + 1, 1L); id <= maxId && result.size() < limit; id++) {
+                Item item = read(id);
+                if (item != null) {
+                    result.add(item);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Item> scanBefore(long beforeId, int limit) {
+        long stamp = lock.readLock();
+        try {
+            List<Item> result = new ArrayList<>(Math.min(limit, 128));
+            for (long id = Math.min(beforeId - 1, maxId); id >= 1 && result.size() < limit; id--) {
+                Item item = read(id);
+                if (item != null) {
+                    result.add(item);
+                }
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        long afterId = 0L;
+        while (true) {
+            //락을 오래 잡지 않도록 나누어서 읽는다
+            List<Item> chunk = scanAfter(afterId, 1024);
+            if (chunk.isEmpty()) {
+                return;
+            }
+            chunk.forEach(action);
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long maxId() {
+        long stamp = lock.readLock();
+        try {
+            return maxId;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            items.asSlice(HEADER_SIZE).fill((byte) 0);
+            maxId = 0;
+            count = 0;
+            namesSize = 0;
+            namesLive = 0;
+            writeHeader();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 스프링 빈이 내려갈때 호출된다. 매핑된 내용을 디스크에 내려쓴다
+     */
+    @Override
+    public void close() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            items.force();
+            names.force();
+            itemsChannel.close();
+            namesChannel.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Item read(long id) {
+        MemorySegment items = this.items;
+        long offset = recordOffset(id);
+        if (offset + RECORD_SIZE > items.byteSize()) {
+            return null;
+        }
+        int flags = items.get(INT, offset + R_FLAGS);
+        if ((flags & PRESENT) == 0) {
+            return null;
+        }
+        String itemName = null;
+        if ((flags & NAME_NULL) == 0) {
+            int length = items.get(INT, offset + R_NAME_LENGTH);
+            long nameOffset = items.get(LONG, offset + R_NAME_OFFSET);
+            byte[] bytes = names.asSlice(nameOffset, length).toArray(ValueLayout.JAVA_BYTE);
+            itemName = new String(bytes, StandardCharsets.UTF_8);
+        }
+        Integer price = (flags & PRICE_NULL) == 0 ? items.get(INT, offset + R_PRICE) : null;
+        Integer quantity = (flags & QUANTITY_NULL) == 0 ? items.get(INT, offset + R_QUANTITY) : null;
+
+        return new Item(id, itemName, price, quantity, items.get(LONG, offset + R_VERSION));
+    }
+
+    private static long recordOffset(long id) {
+        return HEADER_SIZE + (id - 1) * RECORD_SIZE;
+    }
+
+    private long appendName(byte[] bytes) {
+        ensureNamesCapacity(namesSize + bytes.length);
+        long offset = namesSize;
+        MemorySegment.copy(bytes, 0, names, ValueLayout.JAVA_BYTE, offset, bytes.length);
+        namesSize += bytes.length;
+        return offset;
+    }
+
+    private void writeHeader() {
+        items.set(LONG, H_MAX_ID, maxId);
+        items.set(LONG, H_COUNT, count);
+        items.set(LONG, H_NAMES_SIZE, namesSize);
+        items.set(LONG, H_NAMES_LIVE, namesLive);
+    }
+
+    /**
+     * 살아있는 이름을 id 순서로 names.dat.compact 에 옮겨 담고 names.dat 와 바꾼다. 쓰기 락을 잡고 호출한다
+     * 1. names.dat.compact 를 다 쓰고 디스크에 내려쓴다. 여기서 죽으면 names.dat 는 그대로이고 다음 compact 가 덮어쓴다
+     * 2. 헤더에 옮기는 중(H_COMPACTING)이라고 적고 파일을 바꾼다
+     * 3. 레코드의 이름 위치를 새 파일 기준으로 바꾼다. 새 위치는 id 순서로 이름 길이를 더한 값이므로 다시 계산할 수 있다
+     * 2, 3 도중에 죽으면 다시 열때 recoverCompaction 이 이어서 끝낸다
+     */
+    private void compactNamesLocked() {
+        Path namesPath = directory.resolve(NAMES_FILE);
+        Path compactPath = directory.resolve(NAMES_COMPACT_FILE);
+        try {
+            long live = 0;
+            for (long id = 1; id <= maxId; id++) {
+                live += nameLength(recordOffset(id));
+            }
+            try (FileChannel channel = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MemorySegment compact = map(channel, Math.max(live, INITIAL_NAMES_SIZE));
+                long compactOffset = 0;
+                for (long id = 1; id <= maxId; id++) {
+                    long offset = recordOffset(id);
+                    int length = nameLength(offset);
+                    if (length > 0) {
+                        MemorySegment.copy(names, items.get(LONG, offset + R_NAME_OFFSET), compact, compactOffset, length);
+                        compactOffset += length;
+                    }
+                }
+                compact.force();
+            }
+
+            items.set(INT, H_COMPACTING, 1);
+            items.force();
+            namesChannel.close();
+            Files.move(compactPath, namesPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            namesChannel = FileChannel.open(namesPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            names = map(namesChannel, namesChannel.size());
+
+            relocateNames();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * compactNames 도중에 멈춘 경우. names.dat.compact 가 남아 있으면 바꾸기 전이므로 버리고, 없으면 바꾼 뒤이므로 위치를 마저 바꾼다
+     */
+    private void recoverCompaction() throws IOException {
+        if (Files.deleteIfExists(directory.resolve(NAMES_COMPACT_FILE))) {
+            items.set(INT, H_COMPACTING, 0);
+            items.force();
+        } else {
+            relocateNames();
+        }
+    }
+
+    private void relocateNames() {
+        long nameOffset = 0;
+        for (long id = 1; id <= maxId; id++) {
+            long offset = recordOffset(id);
+            int length = nameLength(offset);
+            if (length > 0) {
+                items.set(LONG, offset + R_NAME_OFFSET, nameOffset);
+                nameOffset += length;
+            }
+        }
+        namesSize = nameOffset;
+        namesLive = nameOffset;
+        writeHeader();
+        items.set(INT, H_COMPACTING, 0);
+        items.force();
+    }
+
+    /**
+     * 레코드가 가리키는 이름의 바이트 수. 레코드가 없거나 이름이 null 이면 0
+     */
+    private int nameLength(long offset) {
+        int flags = items.get(INT, offset + R_FLAGS);
+        if ((flags & PRESENT) == 0 || (flags & NAME_NULL) != 0) {
+            return 0;
+        }
+        return items.get(INT, offset + R_NAME_LENGTH);
+    }
+
+    /**
+     * 파일을 두배씩 늘려서 다시 매핑한다. 예전 매핑은 GC 가 정리한다 (Arena.ofAuto)
+     */
+    private void ensureItemsCapacity(long required) {
+        if (required <= items.byteSize()) {
+            return;
+        }
+        items = remap(itemsChannel, items, Math.max(items.byteSize() * 2, required));
+    }
+
+    private void ensureNamesCapacity(long required) {
+        if (required <= names.byteSize()) {
+            return;
+        }
+        names = remap(namesChannel, names, Math.max(names.byteSize() * 2, required));
+    }
+
+    private static MemorySegment remap(FileChannel channel, MemorySegment current, long size) {
+        try {
+            current.force();
+            return map(channel, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MemorySegment map(FileChannel channel, long size) throws IOException {
+        //READ_WRITE 로 파일보다 큰 영역을 매핑하면 파일이 그 크기만큼 늘어난다
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size, Arena.ofAuto());
+    }
+}
@@ -0,0 +1,73 @@
+package hello.itemservice.domain.item;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * 기본 저장소. Item 객체를 그대로 ConcurrentSkipListMap 에 보관한다
+ * 락 없이 동작하고, id 순서로 정렬되어 있어서 범위 조회를 바로 할 수 있다
+ */
+public class MemoryItemStore implements ItemStore {
+
+    private final ConcurrentNavigableMap<Long, Item> store = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Item get(long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public void put(Item item) {
+        store.put(item.id(), item);
+    }
+
+    @Override
+    public List<Item> scanAfter(long afterId, int limit) {
+        return collect(store.tailMap(afterId, false), limit);
+    }
+
+    @Override
+    public List<Item> scanBefore(long beforeId, int limit) {
+        List<Item> items = collect(store.headMap(beforeId, false).descendingMap(), limit);
+        Collections.reverse(items);
+        return items;
+    }
+
+    private static List<Item> collect(NavigableMap<Long, Item> range, int limit) {
+        List<Item> items = new ArrayList<>(Math.min(limit, 128));
+        for (Item item : range.values()) {
+            if (items.size() == limit) {
+                break;
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Item> action) {
+        store.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public long maxId() {
+        Map.Entry<Long, Item> last = store.lastEntry();
+        return last != null ? last.getKey() : 0L;
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+}
@@ -0,0 +1,453 @@
+package hello.itemservice.message;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메시지 파일(messages, errors)을 Locale 별 평평한 테이블 하나로 미리 합쳐 두는 MessageSource
+ *
+ * ResourceBundleMessageSource 는 조회할때마다 basename 별로 ResourceBundle 을 찾고, 그 안에서 ko_KR -> ko -> 기본 순서로 내려간다
+ * 여기서는 Locale 마다 아래 순서를 미리 반영한 Map 하나를 만들어 두고 한번만 찾는다
+ * 1. basename 순서 (앞의 basename 이 우선)
+ * 2. 같은 basename 안에서는 ko_KR -> ko -> 기본(messages.properties)
+ * 3. 해당 Locale 파일이 하나도 없으면 시스템 Locale 파일 (fallbackToSystemLocale)
+ *
+ * 인자가 있는 메시지는 MessageFormat 까지 미리 만들어 둔다
+ *
+ * 테이블은 읽을때 찾은 번들 파일의 Locale(messages_en -> en)과 기본(ROOT)만 만든다. 요청 Locale(Accept-Language)로는 만들지 않는다
+ * 다른 Locale 은 언어+국가 -> 언어 -> 기본 순서로 있는 테이블을 찾아 쓰므로, 어떤 Locale 이 와도 테이블 수는 늘지 않는다
+ * 숫자 서식은 요청 Locale 을 따라야 하므로, 테이블과 Locale 이 다르면 MessageFormat 을 따로 만든다
+ * (JDK 가 지원하는 언어+국가만 FORMAT_CACHE_SIZE 개까지 캐시한다)
+ *
+ * reloadInterval 이 0 보다 크면 그 주기로 파일 수정 시간을 확인해서, 바뀌었으면 테이블 전체를 새로 만들어 한번에 교체한다
+ * 교체 중에도 조회는 이전 테이블로 계속된다
+ *
+ * 조회 통계는 stats() (/actuator/messages), 조회 시간은 registerTimers 로 등록한 item.messages.lookup 타이머로 본다
+ */
+@Slf4j
+public class CompiledMessageSource extends AbstractMessageSource implements DisposableBean {
+
+    private static final int FORMAT_CACHE_SIZE = 4096;
+    private static final Set<Locale> FORMAT_LOCALES = Set.of(NumberFormat.getAvailableLocales());
+
+    private final ResourceLoader resourceLoader;
+    private final List<String> basenames;
+    private final Charset encoding;
+    private final boolean fallbackToSystemLocale;
+    private final ScheduledExecutorService reloader;
+
+    private volatile Snapshot snapshot;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAccumulator maxLookupNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder reloads = new LongAdder();
+    private volatile Timer hitTimer;
+    private volatile Timer missTimer;
+
+    public CompiledMessageSource(ResourceLoader resourceLoader, List<String> basenames, Charset encoding,
+                                 boolean fallbackToSystemLocale, Duration reloadInterval) {
+        this.resourceLoader = resourceLoader;
+        this.basenames = List.copyOf(basenames);
+        this.encoding = encoding;
+        this.fallbackToSystemLocale = fallbackToSystemLocale;
+        this.snapshot = compile();
+
+        if (reloadInterval.isPositive()) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "message-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = reloadInterval.toMillis();
+            reloader.scheduleWithFixedDelay(this::reloadIfModified, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            reloader = null;
+        }
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        Message message = snapshot.table(locale).get(code);
+        return message != null ? message.text() : null;
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        Snapshot current = snapshot;
+        Map<String, Message> exact = current.tables.get(locale);
+        Message message = (exact != null ? exact : current.table(locale)).get(code);
+        if (message == null) {
+            return null;
+        }
+        if (exact != null && message.format() != null) {
+            return message.format();
+        }
+        //잘못된 패턴이면 ResourceBundleMessageSource 와 같이 사용할때 예외가 나도록 그때 만든다
+        return message.format() != null ? current.format(code, message, locale) : createMessageFormat(message.text(), locale);
+    }
+
+    /**
+     * 기본 메시지(defaultMessage)의 MessageFormat 은 부모 클래스가 메시지, Locale 별로 캐시한다
+     * 요청 Locale 을 그대로 넘기면 Locale 마다 쌓이므로 JDK 가 지원하는 언어+국가(없으면 ROOT)로 바꾸어 넘긴다
+     */
+    @Override
+    protected String formatMessage(String msg, Object[] args, Locale locale) {
+        return super.formatMessage(msg, args, formatLocale(locale));
+    }
+
+    private static Locale formatLocale(Locale locale) {
+        if (FORMAT_LOCALES.contains(locale)) {
+            return locale;
+        }
+        Locale languageCountry = Locale.of(locale.getLanguage(), locale.getCountry());
+        return FORMAT_LOCALES.contains(languageCountry) ? languageCountry : Locale.ROOT;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        long start = System.nanoTime();
+        String message = super.getMessage(code, args, defaultMessage, locale);
+        record(start, message == null);
+        return message;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        long start = System.nanoTime();
+        try {
+            String message = super.getMessage(code, args, locale);
+            record(start, false);
+            return message;
+        } catch (NoSuchMessageException e) {
+            record(start, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        long start = System.nanoTime();
+        try {
+            String message = super.getMessage(resolvable, locale);
+            record(start, false);
+            return message;
+        } catch (NoSuchMessageException e) {
+            record(start, true);
+            throw e;
+        }
+    }
+
+    private void record(long start, boolean miss) {
+        long elapsed = System.nanoTime() - start;
+        lookups.increment();
+        lookupNanos.add(elapsed);
+        maxLookupNanos.accumulate(elapsed);
+        if (miss) {
+            misses.increment();
+        }
+        Timer timer = miss ? missTimer : hitTimer;
+        if (timer != null) {
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * item.messages.lookup : 메시지 조회 시간 tag outcome(hit, miss)
+     * 등록하기 전에는 stats() 용 합계만 센다 (item.metrics.enabled=false)
+     */
+    public void registerTimers(MeterRegistry registry) {
+        hitTimer = Timer.builder("item.messages.lookup").tag("outcome", "hit").register(registry);
+        missTimer = Timer.builder("item.messages.lookup").tag("outcome", "miss").register(registry);
+    }
+
+    public Stats stats() {
+        long count = lookups.sum();
+        return new Stats(count, misses.sum(), count == 0 ? 0 : lookupNanos.sum() / count, maxLookupNanos.get(),
+                reloads.sum(), snapshot.tables.size());
+    }
+
+    /**
+     * 테이블을 다시 만든 횟수. 메시지로 만든 화면이 바뀌었는지 확인할때 사용한다 (ETag)
+     */
+    public long generation() {
+        return reloads.sum();
+    }
+
+    /**
+     * 파일이 바뀌었는지와 상관없이 번들 Locale 을 다시 찾고 테이블을 모두 새로 만든다
+     */
+    public void reload() {
+        Snapshot compiled = compile();
+        snapshot = compiled;
+        reloads.increment();
+        log.info("메시지 파일을 다시 읽었습니다. basenames={}, locales={}", basenames, compiled.tables.keySet());
+    }
+
+    void reloadIfModified() {
+        try {
+            if (snapshot.modified()) {
+                reload();
+            }
+        } catch (RuntimeException e) {
+            //잘못된 파일이면 이전 테이블을 계속 사용한다
+            log.warn("메시지 파일을 다시 읽지 못했습니다", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    private Snapshot compile() {
+        Set<Locale> locales = bundleLocales();
+        Snapshot compiled = new Snapshot(locales);
+        compiled.tables.put(Locale.ROOT, compiled.build(Locale.ROOT));
+        for (Locale locale : locales) {
+            compiled.tables.put(locale, compiled.build(locale));
+        }
+        return compiled;
+    }
+
+    /**
+     * basename_언어[_국가[_변형]].properties 파일을 찾아서 Locale 을 모은다
+     */
+    private Set<Locale> bundleLocales() {
+        ResourcePatternResolver resolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        Set<Locale> locales = new HashSet<>();
+        for (String basename : basenames) {
+            String path = path(basename);
+            String name = path.substring(Math.max(path.lastIndexOf('/'), path.indexOf(':')) + 1);
+            String pattern = path.startsWith("classpath:") ? "classpath*:" + path.substring("classpath:".length()) : path;
+            try {
+                for (Resource resource : resolver.getResources(pattern + "_*.properties")) {
+                    String filename = resource.getFilename();
+                    if (filename == null) {
+                        continue;
+                    }
+                    String suffix = filename.substring(name.length() + 1, filename.length() - ".properties".length());
+                    Locale locale = StringUtils.parseLocaleString(suffix);
+                    //messages_extra.properties 같은 다른 basename 은 건너뛴다
+                    if (locale != null && locale.getLanguage().length() >= 2 && locale.getLanguage().length() <= 3) {
+                        locales.add(locale);
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("메시지 파일 목록을 읽지 못했습니다. basename={}", basename, e);
+            }
+        }
+        return locales;
+    }
+
+    private String path(String basename) {
+        return basename.contains(":") ? basename : "classpath:" + StringUtils.replace(basename, ".", "/");
+    }
+
+    /**
+     * 조회 통계. 시간 단위는 나노초
+     */
+    public record Stats(long lookups, long misses, long averageNanos, long maxNanos, long reloads, int locales) {
+    }
+
+    private record Message(String text, MessageFormat format) {
+    }
+
+    private record FormatKey(String code, Locale locale) {
+    }
+
+    /**
+     * 한 시점의 메시지 파일 내용과 그것으로 만든 Locale 별 테이블. 테이블은 compile 에서 모두 만들고 바뀌지 않는다
+     */
+    private class Snapshot {
+
+        private final Set<Locale> locales;
+        private final Map<Locale, Map<String, Message>> tables = new ConcurrentHashMap<>();
+        private final Map<String, Properties> files = new ConcurrentHashMap<>();
+        private final Map<String, Long> lastModified = new ConcurrentHashMap<>();
+        private final Map<FormatKey, MessageFormat> formats = new ConcurrentHashMap<>();
+
+        Snapshot(Set<Locale> locales) {
+            this.locales = Set.copyOf(locales);
+        }
+
+        Map<String, Message> table(Locale locale) {
+            Map<String, Message> table = tables.get(locale);
+            return table != null ? table : tables.get(resolve(locale));
+        }
+
+        /**
+         * 테이블이 있는 가장 가까운 Locale. 언어+국가+변형 -> 언어+국가 -> 언어 -> 기본(ROOT)
+         */
+        private Locale resolve(Locale locale) {
+            List<Locale> candidates = candidates(locale);
+            for (int i = candidates.size() - 1; i >= 0; i--) {
+                if (tables.containsKey(candidates.get(i))) {
+                    return candidates.get(i);
+                }
+            }
+            return Locale.ROOT;
+        }
+
+        /**
+         * 테이블과 다른 Locale 의 MessageFormat. 캐시가 차거나 JDK 가 모르는 Locale 이면 캐시하지 않고 만든다
+         */
+        MessageFormat format(String code, Message message, Locale locale) {
+            Locale formatLocale = formatLocale(locale);
+            if (formatLocale.equals(Locale.ROOT) && !locale.equals(Locale.ROOT)) {
+                return createMessageFormat(message.text(), locale);
+            }
+            FormatKey key = new FormatKey(code, formatLocale);
+            MessageFormat format = formats.get(key);
+            if (format == null) {
+                format = createMessageFormat(message.text(), formatLocale);
+                if (formats.size() < FORMAT_CACHE_SIZE) {
+                    formats.putIfAbsent(key, format);
+                }
+            }
+            return format;
+        }
+
+        private Map<String, Message> build(Locale locale) {
+            Map<String, String> texts = new HashMap<>();
+            //뒤의 basename 부터 덮어써서 앞의 basename 이 우선하도록 한다
+            for (int i = basenames.size() - 1; i >= 0; i--) {
+                for (Properties properties : chain(basenames.get(i), locale)) {
+                    properties.forEach((key, value) -> texts.put((String) key, (String) value));
+                }
+            }
+
+            Map<String, Message> table = new HashMap<>();
+            texts.forEach((code, text) -> table.put(code, new Message(text, compileFormat(text, locale))));
+            return Map.copyOf(table);
+        }
+
+        private MessageFormat compileFormat(String text, Locale locale) {
+            try {
+                return createMessageFormat(text, locale);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 한 basename 에서 기본 -> 언어 -> 국가 순서 (뒤에 올수록 우선)
+         */
+        private List<Properties> chain(String basename, Locale locale) {
+            List<Properties> chain = new ArrayList<>();
+            chain.add(load(basename, Locale.ROOT));
+            boolean found = addLocaleFiles(chain, basename, locale);
+            if (!found && fallbackToSystemLocale && !locale.equals(Locale.getDefault())) {
+                addLocaleFiles(chain, basename, Locale.getDefault());
+            }
+            return chain;
+        }
+
+        private boolean addLocaleFiles(List<Properties> chain, String basename, Locale locale) {
+            boolean found = false;
+            for (Locale candidate : candidates(locale)) {
+                Properties properties = load(basename, candidate);
+                if (!properties.isEmpty()) {
+                    chain.add(properties);
+                    found = true;
+                }
+            }
+            return found;
+        }
+
+        private List<Locale> candidates(Locale locale) {
+            List<Locale> candidates = new ArrayList<>();
+            if (!locale.getLanguage().isEmpty()) {
+                candidates.add(Locale.of(locale.getLanguage()));
+            }
+            if (!locale.getCountry().isEmpty()) {
+                candidates.add(Locale.of(locale.getLanguage(), locale.getCountry()));
+            }
+            if (!locale.getVariant().isEmpty()) {
+                candidates.add(Locale.of(locale.getLanguage(), locale.getCountry(), locale.getVariant()));
+            }
+            return candidates;
+        }
+
+        private Properties load(String basename, Locale locale) {
+            String location = location(basename, locale);
+            return files.computeIfAbsent(location, key -> {
+                Resource resource = resourceLoader.getResource(key);
+                Properties properties = new Properties();
+                if (!resource.exists()) {
+                    lastModified.put(key, -1L);
+                    return properties;
+                }
+                try (Reader reader = new InputStreamReader(resource.getInputStream(), encoding)) {
+                    lastModified.put(key, lastModified(resource));
+                    properties.load(reader);
+                } catch (IOException e) {
+                    throw new IllegalStateException("메시지 파일을 읽을 수 없습니다. location=" + key, e);
+                }
+                return properties;
+            });
+        }
+
+        boolean modified() {
+            if (!bundleLocales().equals(locales)) {
+                return true; //번들 파일이 추가/삭제되었다
+            }
+            for (Map.Entry<String, Long> entry : lastModified.entrySet()) {
+                Resource resource = resourceLoader.getResource(entry.getKey());
+                long current = resource.exists() ? lastModified(resource) : -1L;
+                if (current != entry.getValue()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long lastModified(Resource resource) {
+            try {
+                return resource.lastModified();
+            } catch (IOException e) {
+                return 0L;
+            }
+        }
+
+        private String location(String basename, Locale locale) {
+            String suffix = locale.equals(Locale.ROOT) ? "" : "_" + locale;
+            return path(basename) + suffix + ".properties";
+        }
+    }
+}
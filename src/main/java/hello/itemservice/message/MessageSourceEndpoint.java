@@ -0,0 +1,32 @@
+package hello.itemservice.message;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * /actuator/messages
+ * GET 은 메시지 조회 통계, POST 는 메시지 파일을 바로 다시 읽는다
+ * 다시 읽으면 테이블을 모두 새로 만들고 generation 이 올라서 v4 화면의 ETag 가 모두 바뀐다.
+ * 그래서 기본 설정(management.endpoint.messages.access=read-only)에서는 POST 를 받지 않는다
+ */
+@Endpoint(id = "messages")
+public class MessageSourceEndpoint {
+
+    private final CompiledMessageSource messageSource;
+
+    public MessageSourceEndpoint(CompiledMessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    @ReadOperation
+    public CompiledMessageSource.Stats stats() {
+        return messageSource.stats();
+    }
+
+    @WriteOperation
+    public CompiledMessageSource.Stats reload() {
+        messageSource.reload();
+        return messageSource.stats();
+    }
+}
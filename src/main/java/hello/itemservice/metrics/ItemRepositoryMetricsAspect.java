@@ -0,0 +1,42 @@
+package hello.itemservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemRepository 의 public 메서드 실행 시간 (item.repository, tag operation)
+ * p50, p99 등을 볼 수 있도록 히스토그램을 남긴다
+ *
+ * 메트릭이 꺼져 있으면 이 빈이 없으므로 ItemRepository 에 프록시도 만들어지지 않는다
+ */
+@Aspect
+public class ItemRepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ItemRepositoryMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * hello.itemservice.domain.item.ItemRepository.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer timer = timers.computeIfAbsent(joinPoint.getSignature().getName(), operation -> Timer.builder("item.repository")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry));
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package hello.itemservice.metrics;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.support.WebBindingInitializer;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.InvocableHandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ExtendedServletRequestDataBinder;
+import org.springframework.web.servlet.mvc.method.annotation.ServletRequestDataBinderFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 바인딩 시간과 검증 시간을 따로 재는 WebDataBinder 를 만든다
+ * 검증한 BindingResult 는 요청 속성에 모아두고, 컨트롤러에서 추가한 오류(totalPriceMin)까지 포함해서
+ * 요청이 끝날때 ValidationErrorsInterceptor 가 오류 코드별로 센다
+ */
+public class TimedDataBinderFactory extends ServletRequestDataBinderFactory {
+
+    static final String BINDING_RESULTS = TimedDataBinderFactory.class.getName() + ".BINDING_RESULTS";
+
+    private final ValidationMetrics metrics;
+
+    public TimedDataBinderFactory(List<InvocableHandlerMethod> binderMethods, WebBindingInitializer initializer,
+                                  ValidationMetrics metrics) {
+        super(binderMethods, initializer);
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected ExtendedServletRequestDataBinder createBinderInstance(Object target, String objectName, NativeWebRequest request) {
+        return new TimedDataBinder(target, objectName, request);
+    }
+
+    private class TimedDataBinder extends ExtendedServletRequestDataBinder {
+
+        private final NativeWebRequest request;
+        private final String endpoint;
+
+        TimedDataBinder(Object target, String objectName, NativeWebRequest request) {
+            super(target, objectName);
+            this.request = request;
+            this.endpoint = ValidationMetrics.endpoint(
+                    request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+        }
+
+        @Override
+        public void construct(ValueResolver valueResolver) {
+            long start = System.nanoTime();
+            super.construct(valueResolver);
+            metrics.recordBinding(endpoint, System.nanoTime() - start);
+        }
+
+        @Override
+        protected void doBind(MutablePropertyValues mpvs) {
+            long start = System.nanoTime();
+            super.doBind(mpvs);
+            metrics.recordBinding(endpoint, System.nanoTime() - start);
+        }
+
+        @Override
+        public void validate() {
+            long start = System.nanoTime();
+            super.validate();
+            validated(start);
+        }
+
+        @Override
+        public void validate(Object... validationHints) {
+            long start = System.nanoTime();
+            super.validate(validationHints);
+            validated(start);
+        }
+
+        private void validated(long start) {
+            metrics.recordValidation(endpoint, System.nanoTime() - start);
+            @SuppressWarnings("unchecked")
+            List<BindingResult> bindingResults = (List<BindingResult>) request.getAttribute(BINDING_RESULTS, RequestAttributes.SCOPE_REQUEST);
+            if (bindingResults == null) {
+                bindingResults = new ArrayList<>(1);
+                request.setAttribute(BINDING_RESULTS, bindingResults, RequestAttributes.SCOPE_REQUEST);
+            }
+            bindingResults.add(getBindingResult());
+        }
+    }
+}
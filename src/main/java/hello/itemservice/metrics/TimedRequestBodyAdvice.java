@@ -0,0 +1,58 @@
+package hello.itemservice.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * @RequestBody 는 WebDataBinder 가 아니라 HttpMessageConverter 가 객체를 만든다. 이 변환 시간을 바인딩 시간으로 기록한다
+ * @ControllerAdvice 는 컴포넌트 스캔 대상이므로 메트릭 설정을 여기에도 둔다
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "item.metrics.enabled", havingValue = "true")
+public class TimedRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    private static final String START = TimedRequestBodyAdvice.class.getName() + ".START";
+
+    private final ValidationMetrics metrics;
+
+    public TimedRequestBodyAdvice(ValidationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(START, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+        }
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(START, RequestAttributes.SCOPE_REQUEST) instanceof Long start) {
+            //@ModelAttribute 바인딩, 검증 시간과 같은 이름(빈 타입.메서드)으로 기록한다
+            Object handler = attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            metrics.recordBinding(ValidationMetrics.endpoint(handler), System.nanoTime() - start);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,32 @@
+package hello.itemservice.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * 요청이 끝날때 검증한 BindingResult 의 오류를 코드별로 센다
+ * 컨트롤러가 검증 뒤에 추가한 오류(totalPriceMin 등)도 같은 BindingResult 에 있으므로 함께 세어진다
+ */
+public class ValidationErrorsInterceptor implements HandlerInterceptor {
+
+    private final ValidationMetrics metrics;
+
+    public ValidationErrorsInterceptor(ValidationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(TimedDataBinderFactory.BINDING_RESULTS) instanceof List<?> bindingResults)) {
+            return;
+        }
+        String endpoint = ValidationMetrics.endpoint(handler);
+        for (Object bindingResult : bindingResults) {
+            metrics.countErrors(endpoint, (BindingResult) bindingResult);
+        }
+    }
+}
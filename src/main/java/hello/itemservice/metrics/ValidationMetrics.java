@@ -0,0 +1,80 @@
+package hello.itemservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 바인딩 / 검증 관련 미터
+ * item.binding         : 요청 값 -> 객체 바인딩 시간 (@ModelAttribute 바인딩, @RequestBody 변환) tag endpoint
+ * item.validation      : Validator 실행 시간 tag endpoint
+ * item.validation.rule : 복합 룰(totalPriceMin) 검사 시간 tag rule
+ * item.validation.errors : 오류 코드별 건수 tag endpoint, code (required, range, max, totalPriceMin, typeMismatch, NotBlank ...)
+ *
+ * 미터는 요청마다 찾지 않도록 endpoint, code 별로 한번 만들어서 보관한다
+ */
+public class ValidationMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer totalPriceTimer;
+    private final Map<String, Timer> bindingTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> validationTimers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> errorCounters = new ConcurrentHashMap<>();
+
+    public ValidationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.totalPriceTimer = Timer.builder("item.validation.rule")
+                .tag("rule", "totalPriceMin")
+                .register(registry);
+    }
+
+    public static String endpoint(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        }
+        return "unknown";
+    }
+
+    public void recordBinding(String endpoint, long nanos) {
+        bindingTimers.computeIfAbsent(endpoint, key -> Timer.builder("item.binding")
+                        .tag("endpoint", key)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordValidation(String endpoint, long nanos) {
+        validationTimers.computeIfAbsent(endpoint, key -> Timer.builder("item.validation")
+                        .tag("endpoint", key)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTotalPrice(long nanos) {
+        totalPriceTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 오류 코드는 가장 일반적인 코드(codes 의 마지막)로 센다 ex) required.item.itemName -> required
+     */
+    public void countErrors(String endpoint, BindingResult bindingResult) {
+        if (!bindingResult.hasErrors()) {
+            return;
+        }
+        Map<String, Counter> counters = errorCounters.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>());
+        for (ObjectError error : bindingResult.getAllErrors()) {
+            String code = error.getCode() != null ? error.getCode() : "unknown";
+            counters.computeIfAbsent(code, key -> Counter.builder("item.validation.errors")
+                            .tag("endpoint", endpoint)
+                            .tag("code", key)
+                            .register(registry))
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package hello.itemservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/validation
+ * 엔드포인트별 바인딩, 검증 시간과 오류 코드별 건수, 저장소 연산 시간을 한번에 보여준다
+ * 개별 미터는 /actuator/metrics/item.binding?tag=endpoint:... 처럼 조회할 수도 있다
+ */
+@Endpoint(id = "validation")
+public class ValidationMetricsEndpoint {
+
+    private final MeterRegistry registry;
+
+    public ValidationMetricsEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new TreeMap<>();
+        summary.put("binding", timers("item.binding", "endpoint"));
+        summary.put("validation", timers("item.validation", "endpoint"));
+        summary.put("rules", timers("item.validation.rule", "rule"));
+        summary.put("repository", timers("item.repository", "operation"));
+
+        Map<String, Map<String, Long>> errors = new TreeMap<>();
+        for (Counter counter : registry.find("item.validation.errors").counters()) {
+            errors.computeIfAbsent(counter.getId().getTag("endpoint"), key -> new TreeMap<>())
+                    .put(counter.getId().getTag("code"), (long) counter.count());
+        }
+        summary.put("errors", errors);
+        return summary;
+    }
+
+    private Map<String, TimerSummary> timers(String name, String tag) {
+        Map<String, TimerSummary> timers = new TreeMap<>();
+        for (Timer timer : registry.find(name).timers()) {
+            timers.put(timer.getId().getTag(tag), new TimerSummary(timer.count(),
+                    timer.mean(TimeUnit.MICROSECONDS), timer.max(TimeUnit.MICROSECONDS)));
+        }
+        return timers;
+    }
+
+    /**
+     * 시간 단위는 마이크로초
+     */
+    public record TimerSummary(long count, double meanMicros, double maxMicros) {
+    }
+}
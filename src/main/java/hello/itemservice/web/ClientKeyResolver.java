@@ -0,0 +1,27 @@
+package hello.itemservice.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+
+/**
+ * 요청을 보낸 클라이언트를 구분하는 key (속도 제한, Idempotency-Key 범위)
+ * header 가 설정되어 있고 요청에 그 헤더가 있으면 헤더 값(프록시 뒤에서는 X-Forwarded-For 등), 아니면 remoteAddr 이다
+ */
+public class ClientKeyResolver {
+
+    private final String header;
+
+    public ClientKeyResolver(String header) {
+        this.header = header;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        if (StringUtils.hasText(header)) {
+            String value = request.getHeader(header);
+            if (StringUtils.hasText(value)) {
+                return value;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,70 @@
+package hello.itemservice.web.fragment;
+
+import hello.itemservice.domain.item.ItemPage;
+import hello.itemservice.domain.item.ItemRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 상품 목록 화면 전체를 나누어 보낸다 (chunked)
+ *
+ * 목록 템플릿을 행 자리에 표시(ROWS_MARKER)만 넣고 한번 렌더링한 뒤 그 자리에서 앞/뒤로 나눈다
+ * 앞부분을 먼저 보내고, 행은 저장소에서 id 순서로 CHUNK_SIZE 개씩 읽어 ItemRowCache 로 렌더링하고 묶음마다 flush 한다
+ * 상품이 몇개든 메모리에는 한 묶음만 있고, 첫 바이트는 상품을 읽기 전에 나간다
+ *
+ * 보내는 도중 추가/수정된 상품은 커서(id) 위치에 따라 보일 수도 안 보일 수도 있다. 같은 상품이 두번 나가지는 않는다
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemListStreamer {
+
+    static final int CHUNK_SIZE = ItemRepository.MAX_PAGE_SIZE;
+    private static final String ROWS_MARKER = "<!--item-rows-->";
+
+    private final ITemplateEngine templateEngine;
+    private final ItemRepository itemRepository;
+    private final ItemRowCache itemRowCache;
+
+    /**
+     * @param template 목록 템플릿 ex) validation/v4/items
+     * @param basePath 상품 링크 앞부분 ex) /validation/v4/items
+     */
+    public StreamingResponseBody stream(String template, String basePath,
+                                        HttpServletRequest request, HttpServletResponse response) {
+        //틀은 요청 스레드에서 렌더링해서, 템플릿 오류는 응답을 시작하기 전에 일반 오류로 처리되게 한다
+        WebContext context = itemRowCache.webContext(request, response, RequestContextUtils.getLocale(request));
+        context.setVariable("items", List.of());
+        context.setVariable("rows", List.of(ROWS_MARKER));
+        String layout = templateEngine.process(template, context);
+        int marker = layout.indexOf(ROWS_MARKER);
+        if (marker < 0) {
+            throw new IllegalStateException("목록 템플릿에 행 자리가 없습니다. template=" + template);
+        }
+        byte[] head = layout.substring(0, marker).getBytes(StandardCharsets.UTF_8);
+        byte[] tail = layout.substring(marker + ROWS_MARKER.length()).getBytes(StandardCharsets.UTF_8);
+
+        return out -> {
+            out.write(head);
+            out.flush();
+            Long after = 0L;
+            while (after != null) {
+                ItemPage chunk = itemRepository.findPage(after, null, CHUNK_SIZE);
+                for (String row : itemRowCache.rows(basePath, chunk.items(), request, response)) {
+                    out.write(row.getBytes(StandardCharsets.UTF_8));
+                }
+                out.flush();
+                after = chunk.nextCursor();
+            }
+            out.write(tail);
+        };
+    }
+}
@@ -0,0 +1,190 @@
+package hello.itemservice.web.fragment;
+
+import hello.itemservice.domain.item.Item;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 상품 목록의 행(tr) 하나를 렌더링한 HTML 을 캐시한다
+ *
+ * 목록 화면은 요청마다 모든 행의 ${...}, @{...} 를 다시 처리한다. 행은 상품과 Locale 로만 정해지므로
+ * 행 조각(validation/fragments/itemRow :: row)을 한번 렌더링해 두고 목록 화면은 그 문자열을 이어 붙인다
+ *
+ * 키 = (목록 경로, Locale, 상품). 상품의 equals 에 version 이 들어 있으므로 save/update 로 바뀐 상품은 새 키가 되어
+ * 예전 행이 나갈 일이 없다. 예전 행은 쓰이지 않다가 LRU 로 밀려난다 (clearStore 후 같은 id 를 다시 써도 내용이 다르면 다른 키이다)
+ *
+ * 크기는 maxSize 로 제한한다. 세그먼트별 접근 순서 LinkedHashMap(LRU) 을 락으로 나누어서 경합을 줄인다
+ */
+@Component
+public class ItemRowCache {
+
+    static final String TEMPLATE = "validation/fragments/itemRow";
+    private static final Set<String> ROW = Set.of("row");
+    private static final int SEGMENTS = 16; //2의 제곱수
+
+    private final ITemplateEngine templateEngine;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private volatile JakartaServletWebApplication application;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ItemRowCache(ITemplateEngine templateEngine, @Value("${item.fragment-cache.max-size:10000}") int maxSize) {
+        this.templateEngine = templateEngine;
+        int capacity = Math.ceilDiv(Math.max(maxSize, 0), SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * @param basePath 상품 링크 앞부분 ex) /validation/v4/items
+     */
+    public List<String> rows(String basePath, List<Item> items, HttpServletRequest request, HttpServletResponse response) {
+        Locale locale = RequestContextUtils.getLocale(request);
+        List<String> rows = new ArrayList<>(items.size());
+        for (Item item : items) {
+            Key key = new Key(basePath, locale, item);
+            Segment segment = segmentFor(key);
+            String row = segment.get(key);
+            if (row != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                row = render(basePath, item, locale, request, response);
+                segment.put(key, row);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private String render(String basePath, Item item, Locale locale, HttpServletRequest request, HttpServletResponse response) {
+        WebContext context = webContext(request, new NoUrlEncodingResponse(response), locale);
+        context.setVariable("base", basePath);
+        context.setVariable("item", item);
+        return templateEngine.process(TEMPLATE, ROW, context);
+    }
+
+    /**
+     * 뷰(ThymeleafView) 밖에서 템플릿을 렌더링할때 쓰는 컨텍스트. #{...}, @{...}, ${param...} 을 쓸 수 있다
+     */
+    WebContext webContext(HttpServletRequest request, HttpServletResponse response, Locale locale) {
+        return new WebContext(application(request.getServletContext()).buildExchange(request, response), locale);
+    }
+
+    private JakartaServletWebApplication application(ServletContext servletContext) {
+        JakartaServletWebApplication current = application;
+        if (current == null) {
+            current = JakartaServletWebApplication.buildApplication(servletContext);
+            application = current;
+        }
+        return current;
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+
+    private record Key(String basePath, Locale locale, Item item) {
+    }
+
+    /**
+     * 접근 순서 LinkedHashMap 은 get 도 순서를 바꾸므로 조회할때도 락을 잡는다
+     */
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock(); //synchronized 대신 사용한다 (가상 스레드 고정 방지)
+        private final Map<Key, String> rows;
+
+        Segment(int capacity) {
+            rows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        String get(Key key) {
+            lock.lock();
+            try {
+                return rows.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(Key key, String row) {
+            lock.lock();
+            try {
+                rows.put(key, row);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return rows.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 쿠키를 쓰지 않으면 encodeURL 이 링크에 세션 id 를 붙인다. 캐시된 행은 다른 사용자에게도 나가므로 붙이지 않는다
+     */
+    private static final class NoUrlEncodingResponse extends HttpServletResponseWrapper {
+
+        NoUrlEncodingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public String encodeURL(String url) {
+            return url;
+        }
+
+        @Override
+        public String encodeRedirectURL(String url) {
+            return url;
+        }
+    }
+}
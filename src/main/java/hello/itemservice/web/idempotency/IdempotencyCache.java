@@ -0,0 +1,190 @@
+package hello.itemservice.web.idempotency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Idempotency-Key 별로 처음 요청의 응답을 보관한다
+ *
+ * 처음 요청이 처리되는 동안은 "처리중" 으로 자리만 잡아 두고, 끝나면 응답으로 바꾼다
+ * 보관 기간(ttl)이 지나면 없는 것으로 보고, 크기(maxSize)를 넘으면 오래된 것부터 지운다
+ * 세그먼트별 입력 순서 LinkedHashMap 을 락으로 나누어서 경합을 줄인다 (ItemRowCache 와 같은 방식)
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final int SEGMENTS = 16; //2의 제곱수
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyCache(@Value("${item.idempotency.max-size:10000}") int maxSize,
+                            @Value("${item.idempotency.ttl:24h}") Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    IdempotencyCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        int capacity = Math.ceilDiv(Math.max(maxSize, 0), SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * @return null 이면 처음 요청이다. 처리가 끝나면 complete 또는 abandon 을 호출해야 한다
+     *         아니면 먼저 온 요청의 자리 (response 가 null 이면 아직 처리중)
+     */
+    public Entry start(String key) {
+        Entry existing = segmentFor(key).putIfAbsent(key, new Entry(null, nanoClock.getAsLong() + ttlNanos));
+        if (existing == null) {
+            return null;
+        }
+        if (existing.response() == null) {
+            conflicts.increment();
+        } else {
+            replays.increment();
+        }
+        return existing;
+    }
+
+    public void complete(String key, Response response) {
+        if (segmentFor(key).complete(key, new Entry(response, nanoClock.getAsLong() + ttlNanos))) {
+            stored.increment();
+        }
+    }
+
+    /**
+     * 처리 중 예외가 나면 자리를 비워서 다시 시도할 수 있게 한다
+     */
+    public void abandon(String key) {
+        segmentFor(key).abandon(key);
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(replays.sum(), conflicts.sum(), stored.sum(), evictions.sum(), size);
+    }
+
+    public record Stats(long replays, long conflicts, long stored, long evictions, int size) {
+    }
+
+    /**
+     * @param response null 이면 처리중
+     */
+    public record Entry(Response response, long expiresAt) {
+    }
+
+    /**
+     * 다시 보낼 응답. 상품 추가의 응답은 리다이렉트(Location) 이거나 본문 하나이다
+     */
+    public record Response(int status, String contentType, String location, byte[] body) {
+    }
+
+    /**
+     * 보관 기간이 모두 같으므로 입력 순서의 앞쪽이 먼저 만료된다. 넣을때 앞에서부터 만료된 것을 지운다
+     */
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock(); //synchronized 대신 사용한다 (가상 스레드 고정 방지)
+        private final Map<String, Entry> entries;
+
+        Segment(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        Entry putIfAbsent(String key, Entry entry) {
+            lock.lock();
+            try {
+                long now = nanoClock.getAsLong();
+                expire(now);
+                Entry existing = entries.get(key);
+                if (existing != null && existing.expiresAt() - now > 0) {
+                    return existing;
+                }
+                entries.remove(key); //만료된 같은 key 는 지우고 맨 뒤에 다시 넣는다
+                entries.put(key, entry);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean complete(String key, Entry entry) {
+            lock.lock();
+            try {
+                Entry current = entries.get(key);
+                if (current == null || current.response() != null) {
+                    return false; //처리하는 동안 밀려났다
+                }
+                entries.put(key, entry);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void abandon(String key) {
+            lock.lock();
+            try {
+                Entry current = entries.get(key);
+                if (current != null && current.response() == null) {
+                    entries.remove(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void expire(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt() - now > 0) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package hello.itemservice.web.idempotency;
+
+import hello.itemservice.web.ClientKeyResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Idempotency-Key 헤더가 있는 쓰기 요청(POST 등)은 같은 key 로 다시 와도 한번만 처리한다
+ *
+ * 처음 요청의 응답(상태, Content-Type, Location, 본문)을 IdempotencyCache 에 보관해 두고
+ * 같은 key 가 다시 오면 바인딩, 검증, 저장을 하지 않고 보관한 응답을 그대로 보낸다 (Idempotent-Replayed: true)
+ * 처음 요청이 아직 처리중이면 409 를 응답한다
+ * 핸들러가 저장을 마친 뒤 stored(request) 로 표시한 응답만 보관한다. 검증 실패, 예외 등 표시가 없는 응답은 보관하지 않으므로
+ * 값을 고쳐서 같은 key 로 다시 보내면 새로 처리한다
+ *
+ * key 는 메서드, 경로, 클라이언트(ClientKeyResolver)별로 구분한다. 다른 클라이언트가 같은 key 를 써도 섞이지 않는다
+ * 보관한 응답의 Content-Type 을 다시 온 요청의 Accept 가 받을 수 없으면(JSON 으로 저장했는데 CBOR 요청 등) 다시 처리하지 않고 406 을 응답한다
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+    private static final String STORED_ATTRIBUTE = IdempotencyFilter.class.getName() + ".STORED";
+
+    private final IdempotencyCache cache;
+    private final ClientKeyResolver clientKeyResolver;
+
+    /**
+     * IdempotencyCache 의 key. 헤더 값에는 줄바꿈이 올 수 없으므로 줄바꿈으로 구분한다
+     */
+    public static String cacheKey(String method, String path, String client, String idempotencyKey) {
+        return method + " " + path + "\n" + client + "\n" + idempotencyKey;
+    }
+
+    /**
+     * 요청을 처리했다(저장했다)고 표시한다. 표시한 요청의 응답만 보관해서 같은 key 로 다시 오면 그대로 보낸다
+     */
+    public static void stored(HttpServletRequest request) {
+        request.setAttribute(STORED_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey == null || SAFE_METHODS.contains(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, HEADER + " 는 1~" + MAX_KEY_LENGTH + "자 입니다");
+            return;
+        }
+
+        String key = cacheKey(request.getMethod(), request.getRequestURI(), clientKeyResolver.resolve(request), idempotencyKey);
+        IdempotencyCache.Entry existing = cache.start(key);
+        if (existing != null) {
+            if (existing.response() == null) {
+                log.info("처리중인 요청과 같은 key={}", idempotencyKey);
+                response.sendError(HttpServletResponse.SC_CONFLICT, "같은 " + HEADER + " 의 요청을 처리하고 있습니다");
+            } else if (!acceptable(request, existing.response())) {
+                response.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE,
+                        "같은 " + HEADER + " 의 응답은 " + existing.response().contentType() + " 입니다");
+            } else {
+                replay(existing.response(), response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(request, responseWrapper);
+            if (request.getAttribute(STORED_ATTRIBUTE) != null) {
+                cache.complete(key, new IdempotencyCache.Response(responseWrapper.getStatus(), responseWrapper.getContentType(),
+                        responseWrapper.getHeader(HttpHeaders.LOCATION), responseWrapper.getContentAsByteArray()));
+                completed = true;
+            }
+            responseWrapper.copyBodyToResponse();
+        } finally {
+            if (!completed) {
+                cache.abandon(key);
+            }
+        }
+    }
+
+    private static boolean acceptable(HttpServletRequest request, IdempotencyCache.Response saved) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (saved.contentType() == null || accept == null) {
+            return true;
+        }
+        try {
+            MediaType contentType = MediaType.parseMediaType(saved.contentType());
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            return accepted.isEmpty() || accepted.stream().anyMatch(mediaType -> mediaType.isCompatibleWith(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private void replay(IdempotencyCache.Response saved, HttpServletResponse response) throws IOException {
+        response.setStatus(saved.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (saved.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, saved.location());
+        }
+        if (saved.contentType() != null) {
+            response.setContentType(saved.contentType());
+        }
+        response.setContentLength(saved.body().length);
+        response.getOutputStream().write(saved.body());
+    }
+}
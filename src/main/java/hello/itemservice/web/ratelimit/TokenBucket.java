@@ -0,0 +1,96 @@
+package hello.itemservice.web.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 클라이언트별 토큰 버킷 (GCRA)
+ *
+ * 클라이언트마다 "다음 토큰이 쌓이는 이론상 시각(TAT)" 하나만 AtomicLong 으로 가지고 CAS 로 바꾼다. 락이 없다
+ * 요청 하나가 interval(1초 / rate) 만큼 TAT 를 미루고, TAT 가 지금보다 burst * interval 넘게 앞서면 거절한다
+ *
+ * TAT 가 지난 클라이언트는 버킷이 가득 찬 것과 같으므로 지워도 된다. 지우는 것은 요청 스레드가 아니라 주기적으로 evictIdle 을 호출하는
+ * 백그라운드 스레드가 한다 (WriteLimitConfig). 요청 처리는 항상 O(1) 이다
+ * 다음 정리 전에 클라이언트가 maxClients 에 닿으면 새 클라이언트는 하나의 공용 버킷을 나누어 쓴다
+ */
+public class TokenBucket {
+
+    private static final String OVERFLOW = "";
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> clients = new ConcurrentHashMap<>();
+
+    /**
+     * @param rate  초당 허용 요청 수
+     * @param burst 쉬고 있던 클라이언트가 한번에 보낼 수 있는 요청 수
+     */
+    public TokenBucket(double rate, int burst, int maxClients, LongSupplier nanoClock) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate > 0, burst >= 1 이어야 합니다. rate=" + rate + ", burst=" + burst);
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / rate));
+        this.toleranceNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return 0 이면 허용. 아니면 다시 시도할 수 있을때까지 남은 시간(ns)
+     */
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        AtomicLong tat = bucket(client, now);
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current - now, 0L) + now + intervalNanos;
+            long ahead = next - now;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        AtomicLong tat = clients.get(client);
+        if (tat != null) {
+            return tat;
+        }
+        if (clients.size() >= maxClients) {
+            return clients.computeIfAbsent(OVERFLOW, key -> new AtomicLong(now));
+        }
+        return clients.computeIfAbsent(client, key -> new AtomicLong(now));
+    }
+
+    /**
+     * TAT 가 지난(버킷이 가득 찬) 클라이언트를 지운다. 백그라운드 스레드에서 주기적으로 호출한다
+     * 지우는 사이에 같은 클라이언트가 요청하면 그 한번은 가득 찬 새 버킷으로 계산될 수 있다
+     *
+     * @return 지운 클라이언트 수
+     */
+    public int evictIdle() {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (Map.Entry<String, AtomicLong> entry : clients.entrySet()) {
+            if (entry.getValue().get() - now <= 0 && clients.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public int clients() {
+        return clients.size();
+    }
+}
@@ -0,0 +1,64 @@
+package hello.itemservice.web.ratelimit;
+
+import hello.itemservice.web.ClientKeyResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 상품 등록(POST) 요청을 바인딩, Bean Validation, 메시지 처리 전에 제한한다
+ * 거절한 요청은 본문을 읽지 않고 상태 코드와 Retry-After 만 보낸다 (429 : 클라이언트 속도 초과, 503 : 서버 동시 처리 초과)
+ * 클라이언트는 ClientKeyResolver 로 구분한다
+ */
+public class WriteLimitFilter extends OncePerRequestFilter {
+
+    private final Map<String, WriteLimiter> limiters;
+    private final ClientKeyResolver clientKeyResolver;
+
+    /**
+     * @param limiters 경로(requestURI) 별 제한
+     */
+    public WriteLimitFilter(Map<String, WriteLimiter> limiters, ClientKeyResolver clientKeyResolver) {
+        this.limiters = Map.copyOf(limiters);
+        this.clientKeyResolver = clientKeyResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        WriteLimiter limiter = "POST".equals(request.getMethod()) ? limiters.get(request.getRequestURI()) : null;
+        if (limiter == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        switch (limiter.acquire(clientKeyResolver.resolve(request))) {
+            case RATE_LIMITED -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(limiter.retryAfterSeconds()));
+                response.setStatus(429);
+            }
+            case SHED -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+            case ACCEPTED -> {
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    limiter.release();
+                }
+            }
+        }
+    }
+
+    public Collection<WriteLimiter> getLimiters() {
+        return limiters.values();
+    }
+}
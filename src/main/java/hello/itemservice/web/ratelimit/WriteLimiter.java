@@ -0,0 +1,84 @@
+package hello.itemservice.web.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품 등록 경로 하나의 제한
+ * 1. 클라이언트별 속도 제한(TokenBucket) : 넘으면 429
+ * 2. 동시 처리 수 제한 : 이미 maxConcurrent 개를 처리 중이면 기다리지 않고 바로 503 (대기열을 만들지 않아서 처리 중인 요청의 지연이 늘지 않는다)
+ */
+public class WriteLimiter {
+
+    public enum Outcome { ACCEPTED, RATE_LIMITED, SHED }
+
+    private final String name;
+    private final TokenBucket tokenBucket;
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public WriteLimiter(String name, TokenBucket tokenBucket, int maxConcurrent) {
+        this.name = name;
+        this.tokenBucket = tokenBucket;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * ACCEPTED 이면 처리가 끝난 뒤 release 를 호출해야 한다
+     */
+    public Outcome acquire(String client) {
+        if (tokenBucket.tryAcquire(client) > 0) {
+            rateLimited.increment();
+            return Outcome.RATE_LIMITED;
+        }
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return Outcome.SHED;
+        }
+        accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 쉬고 있는 클라이언트의 버킷을 지운다 (TokenBucket.evictIdle)
+     */
+    public int evictIdle() {
+        return tokenBucket.evictIdle();
+    }
+
+    /**
+     * 429 의 Retry-After(초). 거절된 요청은 TAT 를 미루지 않으므로 기다릴 시간은 토큰 하나가 쌓이는 시간보다 짧다
+     */
+    public long retryAfterSeconds() {
+        return Math.max(1L, Math.ceilDiv(tokenBucket.getIntervalNanos(), 1_000_000_000L));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+}
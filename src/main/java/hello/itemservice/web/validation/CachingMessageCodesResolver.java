@@ -0,0 +1,63 @@
+package hello.itemservice.web.validation;
+
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.MessageCodesResolver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메시지 코드 배열을 캐시하는 MessageCodesResolver
+ *
+ * DefaultMessageCodesResolver 는 오류가 날 때마다 문자열을 이어 붙여서 같은 코드 배열을 다시 만든다
+ * ex) required, item, itemName, String -> required.item.itemName, required.itemName, required.java.lang.String, required
+ * 결과는 (code, objectName, field, fieldType) 으로만 정해지므로 한번 만든 배열을 복사해서 돌려준다
+ *
+ * 필드명에 컬렉션 인덱스(items[0].price)가 들어가면 키가 계속 늘어날 수 있으므로 MAX_ENTRIES 를 넘으면 더 캐시하지 않는다
+ */
+public class CachingMessageCodesResolver implements MessageCodesResolver {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    private final MessageCodesResolver delegate;
+    private final Map<Key, String[]> cache = new ConcurrentHashMap<>();
+
+    public CachingMessageCodesResolver() {
+        this(new DefaultMessageCodesResolver());
+    }
+
+    public CachingMessageCodesResolver(MessageCodesResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String[] resolveMessageCodes(String errorCode, String objectName) {
+        return lookup(new Key(errorCode, objectName, null, null, true));
+    }
+
+    @Override
+    public String[] resolveMessageCodes(String errorCode, String objectName, String field, Class<?> fieldType) {
+        return lookup(new Key(errorCode, objectName, field, fieldType, false));
+    }
+
+    private String[] lookup(Key key) {
+        String[] codes = cache.get(key);
+        if (codes == null) {
+            codes = key.objectError
+                    ? delegate.resolveMessageCodes(key.errorCode, key.objectName)
+                    : delegate.resolveMessageCodes(key.errorCode, key.objectName, key.field, key.fieldType);
+            if (cache.size() < MAX_ENTRIES) {
+                cache.putIfAbsent(key, codes);
+            }
+        }
+        //FieldError 가 배열을 그대로 들고 있으므로 공유하지 않는다
+        return codes.clone();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private record Key(String errorCode, String objectName, String field, Class<?> fieldType, boolean objectError) {
+    }
+}
@@ -0,0 +1,234 @@
+package hello.itemservice.web.validation;
+
+import jakarta.validation.MessageInterpolator;
+import jakarta.validation.ValidationException;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.groups.Default;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import org.hibernate.validator.constraints.Range;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 폼 객체의 Bean Validation 애노테이션(@NotBlank, @NotNull, @Range, @Max, @Min)을 시작할때 한번만 읽어서
+ * 필드별 검사 배열로 만들어 두는 Validator
+ *
+ * 요청마다 Hibernate Validator 의 메타데이터 탐색, 리플렉션, ConstraintValidator 디스패치를 거치지 않고
+ * getter 람다 호출 + 비교만 한다
+ *
+ * 오류 코드, arguments, 기본 메시지는 SpringValidatorAdapter(@Validated) 가 만드는 것과 같다
+ * - code : 애노테이션 이름 (NotBlank.item.itemName, NotBlank.itemName, NotBlank.java.lang.String, NotBlank)
+ * - arguments : {필드명(MessageSourceResolvable), 애노테이션 속성을 이름순으로} ex) Range -> {필드, max, min}
+ * 지원하지 않는 제약이 붙어 있으면 다르게 동작하지 않도록 시작할때 예외를 던진다
+ *
+ * FAIL_FAST 이면 첫번째 오류에서 멈춘다 (이미 바인딩 오류가 있으면 검사하지 않는다)
+ */
+public class CompiledValidator implements Validator {
+
+    private static final Set<String> INTERNAL_ATTRIBUTES = Set.of("message", "groups", "payload");
+
+    private final Map<Class<?>, FieldCheck[]> checks;
+
+    private CompiledValidator(Map<Class<?>, FieldCheck[]> checks) {
+        this.checks = checks;
+    }
+
+    public static CompiledValidator compile(ValidatorFactory validatorFactory, Class<?>... types) {
+        jakarta.validation.Validator validator = validatorFactory.getValidator();
+        MessageInterpolator interpolator = validatorFactory.getMessageInterpolator();
+
+        Map<Class<?>, FieldCheck[]> checks = new HashMap<>();
+        for (Class<?> type : types) {
+            List<FieldCheck> fieldChecks = new ArrayList<>();
+            for (PropertyDescriptor property : validator.getConstraintsForClass(type).getConstrainedProperties()) {
+                String field = property.getPropertyName();
+                List<Constraint> constraints = new ArrayList<>();
+                for (ConstraintDescriptor<?> descriptor : property.getConstraintDescriptors()) {
+                    constraints.add(Constraint.of(type, field, descriptor, interpolator));
+                }
+                fieldChecks.add(new FieldCheck(field, getter(type, field), constraints.toArray(Constraint[]::new)));
+            }
+            checks.put(type, fieldChecks.toArray(FieldCheck[]::new));
+        }
+        return new CompiledValidator(Map.copyOf(checks));
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return checks.containsKey(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        validate(target, errors, ValidationMode.current());
+    }
+
+    public void validate(Object target, Errors errors, ValidationMode mode) {
+        boolean failFast = mode.isFailFast();
+        if (failFast && errors.hasErrors()) {
+            return;
+        }
+        FieldCheck[] fieldChecks = checks.get(target.getClass());
+        if (fieldChecks == null) {
+            throw new IllegalArgumentException("컴파일되지 않은 타입입니다. type=" + target.getClass().getName());
+        }
+        for (FieldCheck fieldCheck : fieldChecks) {
+            Object value = fieldCheck.getter.apply(target);
+            for (Constraint constraint : fieldCheck.constraints) {
+                if (!constraint.check.isValid(value)) {
+                    reject(errors, fieldCheck.field, constraint);
+                    if (failFast) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void reject(Errors errors, String field, Constraint constraint) {
+        //SpringValidatorAdapter 와 같이, 타입 변환에 실패한 필드(typeMismatch)에는 검증 오류를 추가하지 않는다
+        FieldError fieldError = errors.getFieldError(field);
+        if (fieldError != null && fieldError.isBindingFailure()) {
+            return;
+        }
+        String[] fieldCodes = {errors.getObjectName() + Errors.NESTED_PATH_SEPARATOR + field, field};
+        Object[] args = new Object[constraint.attributes.length + 1];
+        args[0] = new DefaultMessageSourceResolvable(fieldCodes, field);
+        System.arraycopy(constraint.attributes, 0, args, 1, constraint.attributes.length);
+        errors.rejectValue(field, constraint.code, args, constraint.defaultMessage());
+    }
+
+    /**
+     * getter 를 LambdaMetafactory 로 Function 으로 만들어 둔다. 호출할때는 일반 람다 호출과 같다
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Class<?> type, String field) {
+        java.beans.PropertyDescriptor property = BeanUtils.getPropertyDescriptor(type, field);
+        Method readMethod = property != null ? property.getReadMethod() : null;
+        if (readMethod == null) {
+            throw new IllegalStateException("getter 가 없습니다. type=" + type.getName() + ", field=" + field);
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(readMethod);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle, handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("getter 를 만들수 없습니다. type=" + type.getName() + ", field=" + field, e);
+        }
+    }
+
+    private record FieldCheck(String field, Function<Object, Object> getter, Constraint[] constraints) {
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean isValid(Object value);
+    }
+
+    /**
+     * 제약 하나. null 은 @NotNull, @NotBlank 외에는 통과한다 (Bean Validation 규약)
+     */
+    private record Constraint(String code, Check check, Object[] attributes,
+                              ConstraintDescriptor<?> descriptor, MessageInterpolator interpolator,
+                              Map<Locale, String> messages) {
+
+        static Constraint of(Class<?> type, String field, ConstraintDescriptor<?> descriptor, MessageInterpolator interpolator) {
+            Annotation annotation = descriptor.getAnnotation();
+            if (!descriptor.getGroups().equals(Set.of(Default.class))) {
+                throw new IllegalStateException("groups 가 있는 제약은 지원하지 않습니다. type=" + type.getName() + ", field=" + field);
+            }
+
+            Check check = switch (annotation) {
+                case NotNull _ -> value -> value != null;
+                case NotBlank _ -> value -> value != null && !value.toString().trim().isEmpty();
+                case Range range -> between(type, field, range.min(), range.max());
+                case Max max -> between(type, field, Long.MIN_VALUE, max.value());
+                case Min min -> between(type, field, min.value(), Long.MAX_VALUE);
+                default -> throw new IllegalStateException("지원하지 않는 제약입니다. type=" + type.getName()
+                        + ", field=" + field + ", constraint=" + annotation.annotationType().getSimpleName());
+            };
+
+            //SpringValidatorAdapter 와 같이 속성 이름순으로 arguments 를 만든다
+            Map<String, Object> attributes = new TreeMap<>(descriptor.getAttributes());
+            attributes.keySet().removeAll(INTERNAL_ATTRIBUTES);
+
+            return new Constraint(annotation.annotationType().getSimpleName(), check, attributes.values().toArray(),
+                    descriptor, interpolator, new ConcurrentHashMap<>());
+        }
+
+        private static Check between(Class<?> type, String field, long min, long max) {
+            Class<?> fieldType = BeanUtils.getPropertyDescriptor(type, field).getPropertyType();
+            if (fieldType != Integer.class && fieldType != Long.class && fieldType != Short.class && fieldType != Byte.class) {
+                throw new IllegalStateException("정수 타입만 지원합니다. type=" + type.getName() + ", field=" + field);
+            }
+            return value -> {
+                if (value == null) {
+                    return true;
+                }
+                long number = ((Number) value).longValue();
+                return number >= min && number <= max;
+            };
+        }
+
+        /**
+         * 기본 메시지는 @Validated 와 같이 현재 요청의 Locale 로 보간한다. Locale 별로 한번만 만든다
+         */
+        String defaultMessage() {
+            return messages.computeIfAbsent(LocaleContextHolder.getLocale(), locale -> {
+                try {
+                    return interpolator.interpolate(descriptor.getMessageTemplate(), new Context(descriptor));
+                } catch (RuntimeException e) {
+                    return descriptor.getMessageTemplate();
+                }
+            });
+        }
+    }
+
+    private record Context(ConstraintDescriptor<?> descriptor) implements MessageInterpolator.Context {
+
+        @Override
+        public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return descriptor;
+        }
+
+        @Override
+        public Object getValidatedValue() {
+            return null;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            throw new ValidationException("unwrap 은 지원하지 않습니다. type=" + type.getName());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package hello.itemservice.web.validation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드(또는 컨트롤러 전체)의 기본 검증 방식을 FAIL_FAST 로 한다
+ * 요청에 X-Validation-Mode 헤더가 있으면 헤더가 우선한다
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FailFast {
+}
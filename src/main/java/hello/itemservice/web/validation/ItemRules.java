@@ -0,0 +1,51 @@
+package hello.itemservice.web.validation;
+
+import hello.itemservice.metrics.ValidationMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+
+/**
+ * 특정 필드가 아닌 복합 룰 검증
+ * 컨트롤러마다 같은 코드를 두지 않도록 새로 만드는 검증 경로는 이 빈을 주입받아 사용한다
+ */
+@Component
+public class ItemRules {
+
+    public static final int TOTAL_PRICE_MIN = 10000;
+
+    /**
+     * 메트릭이 켜져 있으면(item.metrics.enabled) 검사 시간을 기록한다. 꺼져 있으면 null 이고 시간을 재지 않는다
+     */
+    private final ValidationMetrics metrics;
+
+    public ItemRules(ObjectProvider<ValidationMetrics> metrics) {
+        this.metrics = metrics.getIfAvailable();
+    }
+
+    /**
+     * 가격 * 수량의 합은 10000원 이상이다. 둘중 하나라도 없으면 (필드 오류로 이미 걸러지므로) 검사하지 않는다
+     */
+    public void checkTotalPrice(Integer price, Integer quantity, Errors errors) {
+        checkTotalPrice(price, quantity, errors, ValidationMode.current());
+    }
+
+    /**
+     * FAIL_FAST 에서 이미 오류가 있으면 검사하지 않는다
+     */
+    public void checkTotalPrice(Integer price, Integer quantity, Errors errors, ValidationMode mode) {
+        if (mode.isFailFast() && errors.hasErrors()) {
+            return;
+        }
+        long start = metrics != null ? System.nanoTime() : 0L;
+        if (price != null && quantity != null) {
+            int resultPrice = price * quantity;
+            if (resultPrice < TOTAL_PRICE_MIN) {
+                errors.reject("totalPriceMin", new Object[]{TOTAL_PRICE_MIN, resultPrice}, null);
+            }
+        }
+        if (metrics != null) {
+            metrics.recordTotalPrice(System.nanoTime() - start);
+        }
+    }
+}
@@ -19,19 +19,32 @@ public class ItemValidator implements Validator {
     @Override
     public void validate(Object target, Errors errors) {
         Item item = (Item) target;  //다운캐스팅
+        boolean failFast = ValidationMode.current().isFailFast(); //FAIL_FAST 이면 첫번째 오류에서 멈춘다
+        if (failFast && errors.hasErrors()) {
+            return;
+        }
 
         ValidationUtils.rejectIfEmptyOrWhitespace(errors, "itemName", "required");
+        if (failFast && errors.hasErrors()) {
+            return;
+        }
 
-        if (item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
+        if (item.price() == null || item.price() < 1000 || item.price() > 1000000) {
             errors.rejectValue("price", "range", new Object[]{1000, 1000000}, null);
+            if (failFast) {
+                return;
+            }
         }
-        if (item.getQuantity() == null || item.getQuantity() >= 9999) {
+        if (item.quantity() == null || item.quantity() >= 9999) {
             errors.rejectValue("quantity", "max", new Object[]{9999}, null);
+            if (failFast) {
+                return;
+            }
         }
 
         //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();
             if (resultPrice < 10000) {
                 errors.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
             }
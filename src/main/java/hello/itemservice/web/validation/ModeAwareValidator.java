@@ -0,0 +1,46 @@
+package hello.itemservice.web.validation;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * @Validated 에서 사용하는 Bean Validation 검증기 (WebMvcConfigurer.getValidator)
+ * FULL 이면 스프링 부트의 기본 검증기, FAIL_FAST 이면 hibernate.validator.fail_fast 로 만든 검증기로 검증한다
+ * FAIL_FAST 에서 이미 바인딩 오류(typeMismatch)가 있으면 검증하지 않는다
+ */
+public class ModeAwareValidator implements SmartValidator {
+
+    private final SmartValidator full;
+    private final SmartValidator failFast;
+
+    public ModeAwareValidator(SmartValidator full, SmartValidator failFast) {
+        this.full = full;
+        this.failFast = failFast;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return full.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        validate(target, errors, new Object[0]);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        if (ValidationMode.current().isFailFast()) {
+            if (!errors.hasErrors()) {
+                failFast.validate(target, errors, validationHints);
+            }
+            return;
+        }
+        full.validate(target, errors, validationHints);
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors, Object... validationHints) {
+        (ValidationMode.current().isFailFast() ? failFast : full).validateValue(targetType, fieldName, value, errors, validationHints);
+    }
+}
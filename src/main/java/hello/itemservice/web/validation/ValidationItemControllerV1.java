@@ -2,7 +2,11 @@ package hello.itemservice.web.validation;
 
 import ch.qos.logback.core.util.StringUtil;
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.fragment.ItemRowCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -22,6 +26,7 @@ import java.util.Map;
 public class ValidationItemControllerV1 {
 
     private final ItemRepository itemRepository;
+    private final ItemRowCache itemRowCache;
 
     /**
      * model 객체는 요청이 올때마다 새로 만들어진다.
@@ -29,9 +34,15 @@ public class ValidationItemControllerV1 {
      * view 가 렌더링을 하면 , 거기서 생명주기가 끝이다
      */
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
-        model.addAttribute("items", items);
+    public String items(@RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        HttpServletRequest request, HttpServletResponse response,
+                        Model model) {
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.items());
+        model.addAttribute("rows", itemRowCache.rows("/validation/v1/items", page.items(), request, response));
+        model.addAttribute("page", page);
         return "validation/v1/items";
     }
 
@@ -44,7 +55,7 @@ public class ValidationItemControllerV1 {
 
     @GetMapping("/add")
     public String addForm(Model model) {
-        model.addAttribute("item", new Item());
+        model.addAttribute("item", Item.EMPTY);
         return "validation/v1/addForm";
     }
 
@@ -57,19 +68,19 @@ public class ValidationItemControllerV1 {
 
         //검증 로직
         //문자열이 null이 아니고, 길이가 0이 아니며, 공백만으로 이루어져 있지 않은지 검사
-        if (!StringUtils.hasText(item.getItemName())) {
+        if (!StringUtils.hasText(item.itemName())) {
             errors.put("itemName", "상품 이름은 필수입니다.");
         }
-        if (item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
+        if (item.price() == null || item.price() < 1000 || item.price() > 1000000) {
             errors.put("price", "가격은 1,000 ~ 1,000,000 까지 허용합니다.");
         }
-        if (item.getQuantity() == null || item.getQuantity() >= 9999) {
+        if (item.quantity() == null || item.quantity() >= 9999) {
             errors.put("quantity", "수량은 최대 9,999 까지 허용합니다");
         }
 
         //특정 필드가 아님 복합 룰 검증
-        if(item.getPrice()!=null && item.getQuantity() != null){
-            int resultPrice = item.getPrice() * item.getQuantity();
+        if(item.price()!=null && item.quantity() != null){
+            int resultPrice = item.price() * item.quantity();
             if(resultPrice<10000){
                 errors.put("globalError", "가격 * 수량의 합은 10,000원 이상이여야 합니다. 현재값 = " + resultPrice);
             }
@@ -82,7 +93,7 @@ public class ValidationItemControllerV1 {
             return "validation/v1/addForm"; //다시 입력폼으로
         }
         //성공 로직
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v1/items/{itemId}";
     }
@@ -2,7 +2,11 @@ package hello.itemservice.web.validation;
 
 import ch.qos.logback.core.util.StringUtil;
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.fragment.ItemRowCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -28,6 +32,7 @@ import java.util.Map;
 public class ValidationItemControllerV2 {
 
     private final ItemRepository itemRepository;
+    private final ItemRowCache itemRowCache;
     private final ItemValidator itemValidator;
 
     @InitBinder
@@ -36,9 +41,15 @@ public class ValidationItemControllerV2 {
     }
 
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
-        model.addAttribute("items", items);
+    public String items(@RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        HttpServletRequest request, HttpServletResponse response,
+                        Model model) {
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.items());
+        model.addAttribute("rows", itemRowCache.rows("/validation/v2/items", page.items(), request, response));
+        model.addAttribute("page", page);
         return "validation/v2/items";
     }
 
@@ -51,7 +62,7 @@ public class ValidationItemControllerV2 {
 
     @GetMapping("/add")
     public String addForm(Model model) {
-        model.addAttribute("item", new Item());
+        model.addAttribute("item", Item.EMPTY);
         return "validation/v2/addForm";
     }
 
@@ -70,19 +81,19 @@ public class ValidationItemControllerV2 {
     public String addItemV1(@ModelAttribute Item item, BindingResult bindingResult, RedirectAttributes redirectAttributes) {
 
 
-        if (!StringUtils.hasText(item.getItemName())) {
+        if (!StringUtils.hasText(item.itemName())) {
             bindingResult.addError(new FieldError("item", "itemName", "상품 이름은 필수입니다."));
         }
-        if (item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
-            bindingResult.addError(new FieldError("item", "price", item.getPrice(), false, null, null, "가격은 1,000 ~ 1,000,000 까지 허용합니다."));
+        if (item.price() == null || item.price() < 1000 || item.price() > 1000000) {
+            bindingResult.addError(new FieldError("item", "price", item.price(), false, null, null, "가격은 1,000 ~ 1,000,000 까지 허용합니다."));
         }
-        if (item.getQuantity() == null || item.getQuantity() >= 9999) {
-            bindingResult.addError(new FieldError("item", "quantity", item.getQuantity(), false, null, null, "수량은 최대 9,999 까지 허용합니다"));
+        if (item.quantity() == null || item.quantity() >= 9999) {
+            bindingResult.addError(new FieldError("item", "quantity", item.quantity(), false, null, null, "수량은 최대 9,999 까지 허용합니다"));
         }
 
         //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();
             if (resultPrice < 10000) {
                 bindingResult.addError(new ObjectError("item", "가격 * 수량의 합은 10,000원 이상이여야 합니다. 현재값 = " + resultPrice));
             }
@@ -96,7 +107,7 @@ public class ValidationItemControllerV2 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v2/items/{itemId}";
     }
@@ -114,19 +125,19 @@ public class ValidationItemControllerV2 {
     //@PostMapping("/add")
     public String addItemV2(@ModelAttribute Item item, BindingResult bindingResult, RedirectAttributes redirectAttributes) {
 
-        if (!StringUtils.hasText(item.getItemName())) {
-            bindingResult.addError(new FieldError("item", "itemName", item.getItemName(), false, null, null, "상품 이름은 필수입니다."));
+        if (!StringUtils.hasText(item.itemName())) {
+            bindingResult.addError(new FieldError("item", "itemName", item.itemName(), false, null, null, "상품 이름은 필수입니다."));
         }
-        if (item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
-            bindingResult.addError(new FieldError("item", "price", item.getPrice(), false, null, null, "가격은 1,000 ~ 1,000,000 까지 허용합니다."));
+        if (item.price() == null || item.price() < 1000 || item.price() > 1000000) {
+            bindingResult.addError(new FieldError("item", "price", item.price(), false, null, null, "가격은 1,000 ~ 1,000,000 까지 허용합니다."));
         }
-        if (item.getQuantity() == null || item.getQuantity() >= 9999) {
+        if (item.quantity() == null || item.quantity() >= 9999) {
             bindingResult.addError(new FieldError("item", "quantity", "수량은 최대 9,999 까지 허용합니다"));
         }
 
         //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();
             if (resultPrice < 10000) {
                 bindingResult.addError(new ObjectError("item", "가격 * 수량의 합은 10,000원 이상이여야 합니다. 현재값 = " + resultPrice));
             }
@@ -139,7 +150,7 @@ public class ValidationItemControllerV2 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v2/items/{itemId}";
     }
@@ -150,18 +161,18 @@ public class ValidationItemControllerV2 {
         log.info("objectName={}", bindingResult.getObjectName());
         log.info("target={}", bindingResult.getTarget());
 
-        if (!StringUtils.hasText(item.getItemName())) {
-            bindingResult.addError(new FieldError("item", "itemName", item.getItemName(), false, new String[]{"required.item.itemName"}, null, null));
+        if (!StringUtils.hasText(item.itemName())) {
+            bindingResult.addError(new FieldError("item", "itemName", item.itemName(), false, new String[]{"required.item.itemName"}, null, null));
         }
-        if (item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
-            bindingResult.addError(new FieldError("item", "price", item.getPrice(), false, new String[]{"range.item.price"}, new Object[]{1000, 1000000}, null));
+        if (item.price() == null || item.price() < 1000 || item.price() > 1000000) {
+            bindingResult.addError(new FieldError("item", "price", item.price(), false, new String[]{"range.item.price"}, new Object[]{1000, 1000000}, null));
         }
-        if (item.getQuantity() == null || item.getQuantity() >= 9999) {
-            bindingResult.addError(new FieldError("item", "quantity", item.getQuantity(), false, new String[]{"max.item.quantity"}, new Object[]{9999}, null));
+        if (item.quantity() == null || item.quantity() >= 9999) {
+            bindingResult.addError(new FieldError("item", "quantity", item.quantity(), false, new String[]{"max.item.quantity"}, new Object[]{9999}, null));
         }
         //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();
             if (resultPrice < 10000) {
                 bindingResult.addError(new ObjectError("item", new String[]{"totalPriceMin"}, new Object[]{10000, resultPrice}, null));
             }
@@ -174,7 +185,7 @@ public class ValidationItemControllerV2 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
 
         return "redirect:/validation/v2/items/{itemId}";
@@ -193,7 +204,7 @@ public class ValidationItemControllerV2 {
         log.info("objectName={}", bindingResult.getObjectName());
         log.info("target={}", bindingResult.getTarget());
 
-//        if (!StringUtils.hasText(item.getItemName())) {
+//        if (!StringUtils.hasText(item.itemName())) {
 //            bindingResult.rejectValue("itemName", "required");
 //        }
         /**
@@ -202,16 +213,16 @@ public class ValidationItemControllerV2 {
          */
         ValidationUtils.rejectIfEmptyOrWhitespace(bindingResult, "itemName", "required");
 
-        if (item.getPrice() == null || item.getPrice() < 1000 || item.getPrice() > 1000000) {
+        if (item.price() == null || item.price() < 1000 || item.price() > 1000000) {
             bindingResult.rejectValue("price", "range", new Object[]{1000, 1000000}, null);
         }
-        if (item.getQuantity() == null || item.getQuantity() >= 9999) {
+        if (item.quantity() == null || item.quantity() >= 9999) {
             bindingResult.rejectValue("quantity", "max", new Object[]{9999}, null);
         }
 
         //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();
             if (resultPrice < 10000) {
                 bindingResult.reject("totalPrinceMin", new Object[]{10000, resultPrice}, null);
             }
@@ -224,7 +235,7 @@ public class ValidationItemControllerV2 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
 
         return "redirect:/validation/v2/items/{itemId}";
@@ -242,7 +253,7 @@ public class ValidationItemControllerV2 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
 
         return "redirect:/validation/v2/items/{itemId}";
@@ -258,7 +269,7 @@ public class ValidationItemControllerV2 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
 
         return "redirect:/validation/v2/items/{itemId}";
@@ -2,9 +2,13 @@ package hello.itemservice.web.validation;
 
 import ch.qos.logback.core.util.StringUtil;
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
 import hello.itemservice.domain.item.SaveCheck;
 import hello.itemservice.domain.item.UpdateCheck;
+import hello.itemservice.web.fragment.ItemRowCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -30,11 +34,18 @@ import java.util.Map;
 public class ValidationItemControllerV3 {
 
     private final ItemRepository itemRepository;
+    private final ItemRowCache itemRowCache;
 
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
-        model.addAttribute("items", items);
+    public String items(@RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        HttpServletRequest request, HttpServletResponse response,
+                        Model model) {
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.items());
+        model.addAttribute("rows", itemRowCache.rows("/validation/v3/items", page.items(), request, response));
+        model.addAttribute("page", page);
         return "validation/v3/items";
     }
 
@@ -47,7 +58,7 @@ public class ValidationItemControllerV3 {
 
     @GetMapping("/add")
     public String addForm(Model model) {
-        model.addAttribute("item", new Item());
+        model.addAttribute("item", Item.EMPTY);
         return "validation/v3/addForm";
     }
 
@@ -63,9 +74,9 @@ public class ValidationItemControllerV3 {
     //@PostMapping("/add")
     public String addItem(@Validated @ModelAttribute Item item, BindingResult bindingResult, RedirectAttributes redirectAttributes) {
 
-        //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();  //가격 * 수량의 합은 10000원 이상이다
+        //특정 필드가 아님 복합 룰 검증 (타입 변환에 실패한 값은 null 로 생성자에 넘어오고 typeMismatch 는 bindingResult 에 있다)
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();  //가격 * 수량의 합은 10000원 이상이다
             if (resultPrice < 10000) {
                 bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
             }
@@ -78,7 +89,7 @@ public class ValidationItemControllerV3 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v3/items/{itemId}";
     }
@@ -86,9 +97,9 @@ public class ValidationItemControllerV3 {
     @PostMapping("/add")
     public String addItem2(@Validated(SaveCheck.class) @ModelAttribute Item item, BindingResult bindingResult, RedirectAttributes redirectAttributes) {
 
-        //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();  //가격 * 수량의 합은 10000원 이상이다
+        //특정 필드가 아님 복합 룰 검증 (타입 변환에 실패한 값은 null 로 생성자에 넘어오고 typeMismatch 는 bindingResult 에 있다)
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();  //가격 * 수량의 합은 10000원 이상이다
             if (resultPrice < 10000) {
                 bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
             }
@@ -101,7 +112,7 @@ public class ValidationItemControllerV3 {
         }
         //성공 로직
         Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v3/items/{itemId}";
     }
@@ -117,9 +128,9 @@ public class ValidationItemControllerV3 {
     //@PostMapping("/{itemId}/edit")
     public String edit(@PathVariable Long itemId, @Validated @ModelAttribute Item item,BindingResult bindingResult) {
 
-        //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();  //가격 * 수량의 합은 10000원 이상이다
+        //특정 필드가 아님 복합 룰 검증 (타입 변환에 실패한 값은 null 로 생성자에 넘어오고 typeMismatch 는 bindingResult 에 있다)
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();  //가격 * 수량의 합은 10000원 이상이다
             if (resultPrice < 10000) {
                 bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
             }
@@ -137,9 +148,9 @@ public class ValidationItemControllerV3 {
     @PostMapping("/{itemId}/edit")
     public String edit2(@PathVariable Long itemId, @Validated(UpdateCheck.class) @ModelAttribute Item item, BindingResult bindingResult) {
 
-        //특정 필드가 아님 복합 룰 검증
-        if (item.getPrice() != null && item.getQuantity() != null) {
-            int resultPrice = item.getPrice() * item.getQuantity();  //가격 * 수량의 합은 10000원 이상이다
+        //특정 필드가 아님 복합 룰 검증 (타입 변환에 실패한 값은 null 로 생성자에 넘어오고 typeMismatch 는 bindingResult 에 있다)
+        if (item.price() != null && item.quantity() != null) {
+            int resultPrice = item.price() * item.quantity();  //가격 * 수량의 합은 10000원 이상이다
             if (resultPrice < 10000) {
                 bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
             }
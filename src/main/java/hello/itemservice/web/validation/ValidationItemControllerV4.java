@@ -1,21 +1,38 @@
 package hello.itemservice.web.validation;
 
 import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
 import hello.itemservice.domain.item.ItemRepository;
 import hello.itemservice.domain.item.SaveCheck;
 import hello.itemservice.domain.item.UpdateCheck;
+import hello.itemservice.message.CompiledMessageSource;
+import hello.itemservice.web.fragment.ItemListStreamer;
+import hello.itemservice.web.fragment.ItemRowCache;
+import hello.itemservice.web.idempotency.IdempotencyFilter;
 import hello.itemservice.web.validation.form.ItemSaveForm;
 import hello.itemservice.web.validation.form.ItemUpdateForm;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 @Slf4j
 @Controller
@@ -24,32 +41,101 @@ import java.util.List;
 public class ValidationItemControllerV4 {
 
     private final ItemRepository itemRepository;
+    private final CompiledValidator compiledValidator;
+    private final MessageSource messageSource;
+    private final ItemRowCache itemRowCache;
+    private final ItemListStreamer itemListStreamer;
+    private final ItemRules itemRules;
+
+    private static final String BASE_PATH = "/validation/v4/items";
+
+    /**
+     * 다시 시작하면 템플릿이 바뀌었을 수 있으므로 ETag 가 모두 달라지도록 시작 시각을 넣는다
+     */
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * 폼 검증은 Hibernate Validator 대신 시작할때 만들어 둔 CompiledValidator 로 한다. 오류 코드는 같다
+     */
+    @InitBinder("item")
+    public void init(WebDataBinder dataBinder) {
+        dataBinder.setValidator(compiledValidator);
+    }
 
     @GetMapping
-    public String items(Model model) {
-        List<Item> items = itemRepository.findAll();
+    public String items(@RequestParam(required = false) Long after,
+                        @RequestParam(required = false) Long before,
+                        @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                        Locale locale, WebRequest webRequest, HttpServletRequest request, HttpServletResponse response,
+                        Model model) {
+        //ETag 는 URL 별로 비교되므로 페이지 위치(after, before, size)는 넣지 않아도 된다
+        if (notModified("items-" + itemRepository.catalogVersion(), locale, webRequest, response)) {
+            return null; //304. 템플릿을 렌더링하지 않는다
+        }
+        ItemPage page = itemRepository.findPage(after, before, size);
+        model.addAttribute("items", page.items());
+        model.addAttribute("rows", itemRowCache.rows(BASE_PATH, page.items(), request, response));
+        model.addAttribute("page", page);
+        return "validation/v4/items";
+    }
+
+    /**
+     * 전체 상품을 한 화면으로 나누어 보낸다. 페이지 단위로 읽으면서 보내므로 상품 수가 많아도 메모리가 늘지 않는다
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> itemsStream(HttpServletRequest request, HttpServletResponse response) {
+        StreamingResponseBody body = itemListStreamer.stream("validation/v4/items", BASE_PATH, request, response);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    /**
+     * 가격 범위, 상품명 prefix 로 검색한다. 둘다 있으면 상품명 인덱스를 따라가면서 가격으로 거른다
+     */
+    @GetMapping("/search")
+    public String search(@RequestParam(required = false) Integer minPrice,
+                         @RequestParam(required = false) Integer maxPrice,
+                         @RequestParam(required = false) String namePrefix,
+                         @RequestParam(defaultValue = "" + ItemRepository.DEFAULT_PAGE_SIZE) int size,
+                         HttpServletRequest request, HttpServletResponse response,
+                         Model model) {
+        int min = minPrice != null ? minPrice : 0;
+        int max = maxPrice != null ? maxPrice : Integer.MAX_VALUE;
+
+        List<Item> items;
+        if (StringUtils.hasText(namePrefix) && minPrice == null && maxPrice == null) {
+            items = itemRepository.findByItemNameStartingWith(namePrefix, size);
+        } else if (StringUtils.hasText(namePrefix)) {
+            items = itemRepository.findByItemNameStartingWith(namePrefix, min, max, size);
+        } else {
+            items = itemRepository.findByPriceBetween(min, max, size);
+        }
         model.addAttribute("items", items);
+        model.addAttribute("rows", itemRowCache.rows(BASE_PATH, items, request, response));
         return "validation/v4/items";
     }
 
     @GetMapping("/{itemId}")
-    public String item(@PathVariable long itemId, Model model) {
+    public String item(@PathVariable long itemId, Locale locale, WebRequest webRequest, HttpServletResponse response,
+                       Model model) {
         Item item = itemRepository.findById(itemId); //경로변수를 통해서 id 를 받아온다 이것으로 DB 자체에서 꺼내오는 것이다. Model 을 사용하는것이 아니라
+        if (item != null && notModified("item-" + itemId + "-" + item.version(), locale, webRequest, response)) {
+            return null;
+        }
         model.addAttribute("item", item);
         return "validation/v4/item";
     }
     //public String addItem2(@Validated(SaveCheck.class) @ModelAttribute Item item, BindingResult bindingResult, RedirectAttributes redirectAttributes) { //groups 를 이용한 예제
 
+    //Idempotency-Key 헤더로 다시 온 요청은 IdempotencyFilter 가 처음 응답(리다이렉트)을 그대로 보내므로 여기까지 오지 않는다
+    //저장한 뒤에만 IdempotencyFilter.stored 로 표시한다. 검증 실패 응답은 보관되지 않으므로 값을 고쳐서 같은 key 로 다시 보내면 새로 처리한다
     @PostMapping("/add")
-    public String addItem(@Validated @ModelAttribute("item") ItemSaveForm form, BindingResult bindingResult, RedirectAttributes redirectAttributes) {
+    public String addItem(@Validated @ModelAttribute("item") ItemSaveForm form, BindingResult bindingResult, RedirectAttributes redirectAttributes,
+                          HttpServletRequest request) {
 
         //특정 필드가 아님 복합 룰 검증
-        if (form.getPrice() != null && form.getQuantity() != null) {
-            int resultPrice = form.getPrice() * form.getQuantity();  //가격 * 수량의 합은 10000원 이상이다
-            if (resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
-        }
+        itemRules.checkTotalPrice(form.getPrice(), form.getQuantity(), bindingResult);
 
         //오류를 가지고 있다면
         if (bindingResult.hasErrors()) {
@@ -58,20 +144,16 @@ public class ValidationItemControllerV4 {
         }
         //성공 로직
         //form -> item 으로 전환한후 save
-        Item item = new Item();
-        item.setItemName(form.getItemName());
-        item.setPrice(form.getPrice());
-        item.setQuantity(form.getQuantity());
-
-        Item savedItem = itemRepository.save(item);
-        redirectAttributes.addAttribute("itemId", savedItem.getId());
+        Item savedItem = itemRepository.save(form.toItem());
+        IdempotencyFilter.stored(request);
+        redirectAttributes.addAttribute("itemId", savedItem.id());
         redirectAttributes.addAttribute("status", true);
         return "redirect:/validation/v4/items/{itemId}";
     }
 
     @GetMapping("/add")
     public String addForm(Model model) {
-        model.addAttribute("item", new Item());
+        model.addAttribute("item", Item.EMPTY);
         return "validation/v4/addForm";
     }
 
@@ -84,30 +166,44 @@ public class ValidationItemControllerV4 {
 
 
     @PostMapping("/{itemId}/edit")
-    public String edit(@PathVariable Long itemId, @Validated @ModelAttribute("item") ItemUpdateForm form, BindingResult bindingResult) {
+    public String edit(@PathVariable Long itemId, @Validated @ModelAttribute("item") ItemUpdateForm form, BindingResult bindingResult,
+                       HttpServletResponse response) {
         //특정 필드가 아님 복합 룰 검증
-        if (form.getPrice() != null && form.getQuantity() != null) {
-            int resultPrice = form.getPrice() * form.getQuantity();  //가격 * 수량의 합은 10000원 이상이다
-            if (resultPrice < 10000) {
-                bindingResult.reject("totalPriceMin", new Object[]{10000, resultPrice}, null);
-            }
-        }
-
-        //form -> item 으로 전환한후 save
-        Item itemParam = new Item();
-        itemParam.setItemName(form.getItemName());
-        itemParam.setPrice(form.getPrice());
-        itemParam.setQuantity(form.getQuantity());
+        itemRules.checkTotalPrice(form.getPrice(), form.getQuantity(), bindingResult);
 
         //오류를 가지고 있다면
         if (bindingResult.hasErrors()) {
             log.info("editerrors = {} ", bindingResult); // 그 오류들을 log 로 찍어보자
             return "validation/v4/editForm";
         }
-        itemRepository.update(itemId, itemParam);
+        //form -> item 으로 전환한후 save
+        Item itemParam = form.toItem();
+        if (!itemRepository.update(itemId, itemParam, form.getVersion())) {
+            //폼을 연 뒤에 다른 사용자가 먼저 수정했다. 입력한 값은 그대로 두고 version 만 최신으로 바꿔서, 확인 후 다시 저장하면 덮어쓴다
+            Item current = itemRepository.findById(itemId);
+            if (current != null) {
+                form.setVersion(current.version());
+            }
+            bindingResult.reject("conflict");
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            log.info("edit conflict itemId={}, version={}", itemId, form.getVersion());
+            return "validation/v4/editForm";
+        }
         return "redirect:/validation/v4/items/{itemId}";
     }
 
+    /**
+     * 상품 version(목록은 catalogVersion), Locale, 메시지 파일 세대, 시작 시각으로 강한 ETag 를 만들고
+     * If-None-Match(없으면 If-Modified-Since)와 같으면 304 를 응답한다
+     * Last-Modified 는 저장소 전체의 마지막 변경 시각이다. 상품 하나의 실제 변경 시각보다 늦을 수는 있어도 이르지는 않다
+     */
+    private boolean notModified(String version, Locale locale, WebRequest webRequest, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE); //같은 URL 이라도 언어별로 다른 화면이다
+        long messages = messageSource instanceof CompiledMessageSource compiled ? compiled.generation() : 0L;
+        String etag = "\"" + version + "-" + locale.toLanguageTag() + "-" + messages + "-" + EPOCH + "\"";
+        return webRequest.checkNotModified(etag, itemRepository.lastModified());
+    }
+
 
 }
 
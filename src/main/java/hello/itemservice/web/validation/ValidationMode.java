@@ -0,0 +1,44 @@
+package hello.itemservice.web.validation;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Locale;
+
+/**
+ * 검증 방식
+ * FULL      : 모든 룰을 검사해서 오류를 모두 담는다 (기본)
+ * FAIL_FAST : 첫번째 오류에서 멈춘다. 요청이 잘못되었는지만 알면 되는 API 클라이언트용
+ *             오류 코드 / 메시지 생성을 하지 않으므로 잘못된 요청이 몰릴때 CPU, 할당이 줄어든다
+ *
+ * 요청마다 ValidationModeInterceptor 가 정해서 요청 속성에 넣어둔다
+ */
+public enum ValidationMode {
+    FULL, FAIL_FAST;
+
+    public static final String HEADER = "X-Validation-Mode";
+
+    static final String ATTRIBUTE = ValidationMode.class.getName();
+
+    /**
+     * full, fail-fast 형태의 설정값을 받는다
+     */
+    public static ValidationMode from(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * 현재 요청의 검증 방식. 요청 스레드가 아니면 (병렬 검증 등) FULL 이므로, 그런 곳에는 요청 스레드에서 꺼내서 넘겨준다
+     */
+    public static ValidationMode current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return FULL;
+        }
+        return attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ValidationMode mode ? mode : FULL;
+    }
+
+    public boolean isFailFast() {
+        return this == FAIL_FAST;
+    }
+}
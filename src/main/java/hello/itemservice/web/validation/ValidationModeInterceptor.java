@@ -0,0 +1,45 @@
+package hello.itemservice.web.validation;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * 요청의 검증 방식을 정한다. 바인딩 / 검증은 preHandle 이후에 일어나므로 여기서 정하면 된다
+ * 1. X-Validation-Mode 헤더 (full, fail-fast)
+ * 2. 컨트롤러 메서드 또는 클래스의 @FailFast
+ * 3. item.validation.mode 설정 (기본 full)
+ */
+public class ValidationModeInterceptor implements HandlerInterceptor {
+
+    private final ValidationMode defaultMode;
+
+    public ValidationModeInterceptor(ValidationMode defaultMode) {
+        this.defaultMode = defaultMode;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(ValidationMode.ATTRIBUTE, resolve(request, handler));
+        return true;
+    }
+
+    private ValidationMode resolve(HttpServletRequest request, Object handler) {
+        String header = request.getHeader(ValidationMode.HEADER);
+        if (header != null) {
+            try {
+                return ValidationMode.from(header);
+            } catch (IllegalArgumentException e) {
+                //알수 없는 값은 무시한다
+            }
+        }
+        if (handler instanceof HandlerMethod handlerMethod
+                && (handlerMethod.hasMethodAnnotation(FailFast.class)
+                || AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), FailFast.class))) {
+            return ValidationMode.FAIL_FAST;
+        }
+        return defaultMode;
+    }
+}
@@ -0,0 +1,9 @@
+package hello.itemservice.web.validation.form;
+
+import java.util.List;
+
+/**
+ * 일괄 검증 결과. 오류가 있는 상품만 errors 에 index 와 함께 담긴다
+ */
+public record BatchValidationResult(int total, int invalid, List<ItemErrorDto> errors) {
+}
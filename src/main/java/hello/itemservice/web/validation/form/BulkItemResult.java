@@ -0,0 +1,12 @@
+package hello.itemservice.web.validation.form;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 대량 등록 결과 한줄. 성공하면 id, 실패하면 errors 가 있다
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(int index, Long id, List<ItemErrorDto> errors) {
+}
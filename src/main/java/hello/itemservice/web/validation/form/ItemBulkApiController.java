@@ -0,0 +1,172 @@
+package hello.itemservice.web.validation.form;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.ValidationMode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 상품 대량 등록 / 내보내기
+ *
+ * 등록 : body 를 한건씩 읽으면서 검증하고(ItemRecordValidator),
+ * 올바른 상품은 BATCH_SIZE 건씩 모아서 저장한 뒤 결과를 한줄씩(NDJSON) 바로 내려보낸다
+ * 요청 전체를 메모리에 올리지 않으므로 아주 큰 파일도 처리할 수 있다
+ *
+ * 내보내기 : 키셋 페이지로 나누어 읽으면서 바로 내려보낸다
+ */
+@Slf4j
+@RestController
+@RequestMapping("/validation/api/items")
+@RequiredArgsConstructor
+public class ItemBulkApiController {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ItemRepository itemRepository;
+    private final ObjectMapper objectMapper;
+    private final ItemRecordValidator itemRecordValidator;
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void importJson(HttpServletRequest request, HttpServletResponse response, Locale locale) throws IOException {
+        importItems(ItemRecordReader.jsonArray(objectMapper, request.getInputStream()), response, locale);
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importNdjson(HttpServletRequest request, HttpServletResponse response, Locale locale) throws IOException {
+        importItems(ItemRecordReader.ndjson(objectMapper, request.getInputStream()), response, locale);
+    }
+
+    @PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+    public void importCsv(HttpServletRequest request, HttpServletResponse response, Locale locale) throws IOException {
+        importItems(ItemRecordReader.csv(request.getInputStream()), response, locale);
+    }
+
+    /**
+     * @param format ndjson(기본), csv
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        response.setContentType(csv ? TEXT_CSV_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        OutputStream out = response.getOutputStream();
+        if (csv) {
+            out.write("id,itemName,price,quantity\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Long after = null;
+        while (true) {
+            ItemPage page = itemRepository.findPage(after, null, ItemRepository.MAX_PAGE_SIZE);
+            for (Item item : page.items()) {
+                if (csv) {
+                    out.write(toCsvLine(item).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    out.write(objectMapper.writeValueAsBytes(item));
+                    out.write('\n');
+                }
+            }
+            out.flush();
+            if (!page.hasNext()) {
+                return;
+            }
+            after = page.nextCursor();
+        }
+    }
+
+    private void importItems(ItemRecordReader reader, HttpServletResponse response, Locale locale) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+
+        ValidationMode mode = ValidationMode.current();
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        int index = 0;
+        try {
+            Map<String, String> fields;
+            while ((fields = reader.next()) != null) {
+                batch.add(validate(index++, fields, locale, mode));
+                if (batch.size() == BATCH_SIZE) {
+                    flush(batch, out);
+                }
+            }
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            //body 형식 자체가 잘못된 경우 : 여기까지 처리한 결과를 내보내고 멈춘다
+            log.info("대량 등록 body 오류 index={}", index, e);
+            flush(batch, out);
+            ItemErrorDto error = new ItemErrorDto(index, null, "parseError", e.getMessage());
+            writeLine(out, new BulkItemResult(index, null, List.of(error)));
+            out.flush();
+            return;
+        }
+        flush(batch, out);
+    }
+
+    private Pending validate(int index, Map<String, String> fields, Locale locale, ValidationMode mode) {
+        ItemRecordValidator.Result result = itemRecordValidator.validate(index, fields, locale, mode);
+        if (result.hasErrors()) {
+            return new Pending(index, null, result.errors());
+        }
+        ItemSaveForm form = result.form();
+        return new Pending(index, form.toItem(), null);
+    }
+
+    private void flush(List<Pending> batch, OutputStream out) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Item> items = batch.stream().map(Pending::item).filter(Objects::nonNull).toList();
+        Iterator<Item> savedItems = itemRepository.saveAll(items).iterator(); //items 와 같은 순서이다
+
+        for (Pending pending : batch) {
+            Long id = pending.item() != null ? savedItems.next().id() : null;
+            writeLine(out, new BulkItemResult(pending.index(), id, pending.errors()));
+        }
+        out.flush();
+        batch.clear();
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        //writeValue(out, ..) 는 스트림을 닫으므로 바이트로 만들어서 쓴다
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    private static String toCsvLine(Item item) {
+        return item.id() + "," + csvValue(item.itemName()) + ","
+                + (item.price() != null ? item.price() : "") + ","
+                + (item.quantity() != null ? item.quantity() : "") + "\n";
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        //줄바꿈(\n, \r)도 따옴표로 감싸야 다시 등록할때 한건으로 읽힌다 (ItemRecordReader.csv)
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private record Pending(int index, Item item, List<ItemErrorDto> errors) {
+    }
+}
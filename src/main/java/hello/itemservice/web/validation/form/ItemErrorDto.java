@@ -0,0 +1,25 @@
+package hello.itemservice.web.validation.form;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.context.MessageSource;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import java.util.Locale;
+
+/**
+ * API 로 돌려주는 검증 오류
+ * ObjectError 를 그대로 JSON 으로 만들면 codes, arguments 등 필요없는 값이 많으므로 필요한 것만 담는다
+ *
+ * @param index 여러건을 보낸 경우 몇번째 상품인지
+ * @param field 필드 오류이면 필드명, 복합 룰 오류(ObjectError)이면 null
+ * @param code  오류 코드 (NotBlank, Range, Max, typeMismatch, totalPriceMin ...)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ItemErrorDto(int index, String field, String code, String message) {
+
+    public static ItemErrorDto of(int index, ObjectError error, MessageSource messageSource, Locale locale) {
+        String field = error instanceof FieldError fieldError ? fieldError.getField() : null;
+        return new ItemErrorDto(index, field, error.getCode(), messageSource.getMessage(error, locale));
+    }
+}
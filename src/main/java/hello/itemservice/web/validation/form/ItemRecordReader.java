@@ -0,0 +1,169 @@
+package hello.itemservice.web.validation.form;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요청 body 에서 상품을 한건씩 읽는다. 전체를 메모리에 올리지 않는다
+ * 한건은 필드명 -> 문자열 값으로 돌려주고, 타입 변환과 검증은 DataBinder 가 한다 (@ModelAttribute 와 같은 방식)
+ */
+interface ItemRecordReader {
+
+    String[] FIELDS = {"itemName", "price", "quantity"};
+    int MAX_CSV_RECORD_LENGTH = 1 << 20;
+
+    /**
+     * @return 다음 상품, 더 없으면 null
+     * @throws IOException body 형식이 잘못된 경우 JsonProcessingException, IllegalArgumentException
+     */
+    Map<String, String> next() throws IOException;
+
+    /**
+     * [{"itemName": "A", "price": 10000, "quantity": 10}, ...]
+     */
+    static ItemRecordReader jsonArray(ObjectMapper objectMapper, InputStream in) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(in);
+        boolean[] started = {false};
+        return () -> {
+            if (!started[0]) {
+                started[0] = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "JSON 배열이어야 합니다");
+                }
+            }
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            return toFields(objectMapper.readTree(parser));
+        };
+    }
+
+    /**
+     * 한줄에 JSON 객체 하나 (application/x-ndjson)
+     */
+    static ItemRecordReader ndjson(ObjectMapper objectMapper, InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    return toFields(objectMapper.readTree(line));
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * 첫줄은 헤더(itemName,price,quantity 순서는 자유). 큰따옴표로 감싼 값을 지원한다 (값 안의 쉼표, 따옴표(""), 줄바꿈 포함)
+     */
+    static ItemRecordReader csv(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = new ArrayList<>();
+        return () -> {
+            List<String> values;
+            while ((values = readCsvRecord(reader)) != null) {
+                if (header.isEmpty()) {
+                    values.forEach(name -> header.add(name.trim()));
+                    continue;
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    fields.put(header.get(i), values.get(i));
+                }
+                return fields;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * JSON 객체에서 상품 필드만 꺼낸다. 숫자 자리에 문자가 와도 여기서는 실패하지 않고 바인딩할때 typeMismatch 가 된다
+     */
+    static Map<String, String> toFields(JsonNode node) {
+        Map<String, String> fields = new HashMap<>();
+        for (String name : FIELDS) {
+            JsonNode value = node.get(name);
+            fields.put(name, value == null || value.isNull() ? null : value.asText());
+        }
+        return fields;
+    }
+
+    /**
+     * CSV 한건을 읽는다. 따옴표 밖의 \n, \r\n, \r 에서 끝나고, 따옴표 안의 줄바꿈은 값에 그대로 남긴다. 빈 줄은 건너뛴다
+     * 닫히지 않은 따옴표가 나머지 body 를 모두 읽어들이지 않도록 한건은 MAX_CSV_RECORD_LENGTH 자까지만 읽는다
+     *
+     * @return 값 목록, 더 없으면 null
+     */
+    private static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean hasQuote = false;
+        int length = 0;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (++length > MAX_CSV_RECORD_LENGTH) {
+                throw new IllegalArgumentException("CSV 한건이 " + MAX_CSV_RECORD_LENGTH + "자를 넘습니다. 닫히지 않은 따옴표가 있는지 확인하세요");
+            }
+            if (quoted) {
+                if (c != '"') {
+                    value.append((char) c);
+                } else if (peek(reader) == '"') {
+                    reader.read();
+                    value.append('"');
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                hasQuote = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && peek(reader) == '\n') {
+                    reader.read();
+                }
+                if (values.isEmpty() && !hasQuote && value.toString().isBlank()) {
+                    value.setLength(0); //빈 줄
+                    length = 0;
+                    continue;
+                }
+                values.add(value.toString());
+                return values;
+            } else {
+                value.append((char) c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("닫히지 않은 따옴표가 있습니다");
+        }
+        if (values.isEmpty() && !hasQuote && value.toString().isBlank()) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static int peek(BufferedReader reader) throws IOException {
+        reader.mark(1);
+        int c = reader.read();
+        reader.reset();
+        return c;
+    }
+}
@@ -0,0 +1,62 @@
+package hello.itemservice.web.validation.form;
+
+import hello.itemservice.web.validation.CompiledValidator;
+import hello.itemservice.web.validation.ItemRules;
+import hello.itemservice.web.validation.ValidationMode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DataBinder;
+import org.springframework.validation.MessageCodesResolver;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 필드명 -> 문자열 값으로 받은 상품 한건을 ItemSaveForm 으로 바인딩하고 검증한다
+ * @ModelAttribute 와 같은 방식으로 바인딩(typeMismatch) -> Bean Validation(CompiledValidator) -> 복합 룰(totalPriceMin) 순서로 검증한다
+ *
+ * 상태가 없으므로 여러 스레드에서 동시에 사용해도 된다
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemRecordValidator {
+
+    private final CompiledValidator validator;
+    private final MessageSource messageSource;
+    private final MessageCodesResolver messageCodesResolver;
+    private final ItemRules itemRules;
+
+    /**
+     * 병렬로 검증하는 경우 요청 스레드가 아니므로 검증 방식을 직접 받는다
+     */
+    public Result validate(int index, Map<String, String> fields, Locale locale, ValidationMode mode) {
+        ItemSaveForm form = new ItemSaveForm();
+        DataBinder binder = new DataBinder(form, "itemSaveForm");
+        binder.setMessageCodesResolver(messageCodesResolver);
+        binder.setAllowedFields(ItemRecordReader.FIELDS);
+        binder.bind(new MutablePropertyValues(fields));
+
+        BindingResult bindingResult = binder.getBindingResult();
+        validator.validate(form, bindingResult, mode);
+        itemRules.checkTotalPrice(form.getPrice(), form.getQuantity(), bindingResult, mode);
+
+        if (!bindingResult.hasErrors()) {
+            return new Result(form, List.of());
+        }
+        List<ItemErrorDto> errors = bindingResult.getAllErrors().stream()
+                .map(error -> ItemErrorDto.of(index, error, messageSource, locale))
+                .toList();
+        return new Result(form, errors);
+    }
+
+    public record Result(ItemSaveForm form, List<ItemErrorDto> errors) {
+
+        public boolean hasErrors() {
+            return !errors.isEmpty();
+        }
+    }
+}
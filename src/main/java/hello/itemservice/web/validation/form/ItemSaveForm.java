@@ -1,5 +1,6 @@
 package hello.itemservice.web.validation.form;
 
+import hello.itemservice.domain.item.Item;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,7 +11,7 @@ import org.hibernate.validator.constraints.Range;
 public class ItemSaveForm {
 
     @NotBlank
-    private String ItemName;
+    private String itemName;
 
      @NotNull
      @Range(min = 1000, max = 1000000)
@@ -19,4 +20,11 @@ public class ItemSaveForm {
     @NotNull
     @Max(value = 9999)
     private Integer quantity;
+
+    /**
+     * 저장할 상품. 필드를 하나씩 옮기지 않고 생성자 한번으로 만든다
+     */
+    public Item toItem() {
+        return new Item(itemName, price, quantity);
+    }
 }
@@ -1,5 +1,6 @@
 package hello.itemservice.web.validation.form;
 
+import hello.itemservice.domain.item.Item;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,7 +14,7 @@ public class ItemUpdateForm {
     private Long id;
 
     @NotBlank
-    private String ItemName;
+    private String itemName;
 
     @NotNull
     @Range(min = 1000, max = 1000000)
@@ -22,4 +23,14 @@ public class ItemUpdateForm {
     @NotNull
     private Integer quantity;  //수정 폼에서 수량은 자유롭게 등록할수 있다
 
+    @NotNull
+    private Long version; //수정 폼을 열었을때의 상품 version. 없으면 덮어쓰지 않고 폼을 다시 보여준다
+
+    /**
+     * 수정할 값. id, version 은 저장소가 정한다
+     */
+    public Item toItem() {
+        return new Item(itemName, price, quantity);
+    }
+
 }
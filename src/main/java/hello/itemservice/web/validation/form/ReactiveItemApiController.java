@@ -0,0 +1,90 @@
+package hello.itemservice.web.validation.form;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.ValidationMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 상품 API 의 논블로킹 버전 (등록 / 목록 / 상세)
+ *
+ * Mono, Flux 를 반환하면 스프링 MVC 는 서블릿 비동기 처리로 전환하고 요청 스레드를 바로 반납한다
+ * 저장소 호출은 boundedElastic 스케줄러에서 실행하므로 journal 저장소의 fsync 가 요청 스레드를 붙잡지 않는다
+ *
+ * 목록은 NDJSON 또는 SSE(text/event-stream) 로 한건씩 내려보낸다
+ * MVC 는 한건을 다 쓴 뒤에 다음 한건을 요청(request(1))하므로, 느린 클라이언트에 맞춰서 페이지를 읽어온다 (backpressure)
+ * 전체를 메모리에 올리지 않고 keyset 페이지 단위로 필요한 만큼만 읽는다 (한 페이지를 다 보내면 다음 한 페이지를 읽는다)
+ *
+ * 연결마다 스레드가 필요 없어지는 것은 아니다. 서블릿 응답 쓰기는 블로킹이므로 한건을 쓰는 동안 boundedElastic 스레드 하나가
+ * 그 연결에 묶인다. 느린 클라이언트의 스트림은 소켓 버퍼가 찰 때마다 스레드를 붙잡고 있으므로,
+ * 동시에 느린 스트림이 많으면 boundedElastic 스레드 상한(CPU x 10)까지 차고 나머지는 그 큐에서 기다린다
+ *
+ * 검증은 ItemRecordValidator 로 ValidationItemApiController 의 일괄 검증과 같은 규칙, 같은 오류 형식을 사용한다
+ */
+@Slf4j
+@RestController
+@RequestMapping("/validation/api/reactive/items")
+@RequiredArgsConstructor
+public class ReactiveItemApiController {
+
+    private final ItemRepository itemRepository;
+    private final ItemRecordValidator itemRecordValidator;
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> addItem(@RequestBody JsonNode body, Locale locale) {
+        ItemRecordValidator.Result result = itemRecordValidator.validate(0, ItemRecordReader.toFields(body), locale, ValidationMode.current());
+        if (result.hasErrors()) {
+            log.info("검증 오류 발생 errors = {} ", result.errors());
+            return Mono.just(ResponseEntity.badRequest().body(result.errors()));
+        }
+        ItemSaveForm form = result.form();
+        return Mono.fromCallable(() -> itemRepository.save(form.toItem()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .<ResponseEntity<?>>map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<Item>> item(@PathVariable long itemId) {
+        return Mono.fromCallable(() -> itemRepository.findById(itemId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Item> items(@RequestParam(required = false) Long after) {
+        return pages(after).concatMapIterable(ItemPage::items, 1);
+    }
+
+    /**
+     * 구독자가 요청할 때마다 다음 페이지를 한번 읽는다
+     */
+    private Flux<ItemPage> pages(Long after) {
+        return Flux.<ItemPage, Cursor>generate(() -> new Cursor(after, false), (cursor, sink) -> {
+                    if (cursor.done()) {
+                        sink.complete();
+                        return cursor;
+                    }
+                    ItemPage page = itemRepository.findPage(cursor.after(), null, ItemRepository.MAX_PAGE_SIZE);
+                    sink.next(page);
+                    List<Item> items = page.items();
+                    return page.hasNext() ? new Cursor(items.get(items.size() - 1).id(), false) : new Cursor(null, true);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private record Cursor(Long after, boolean done) {
+    }
+}
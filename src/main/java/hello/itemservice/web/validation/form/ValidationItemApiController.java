@@ -1,9 +1,29 @@
 package hello.itemservice.web.validation.form;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hello.itemservice.web.validation.CompiledValidator;
+import hello.itemservice.web.validation.ValidationMode;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Spring MVC 1 정리
@@ -47,8 +67,24 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 @RestController
 @RequestMapping("/validation/api/items")
+@RequiredArgsConstructor
 public class ValidationItemApiController {
 
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final long MAX_BATCH_BYTES = MAX_BATCH_SIZE * 1024L;
+    private static final int CHUNK_SIZE = 256;
+
+    private final ItemRecordValidator itemRecordValidator;
+    private final CompiledValidator compiledValidator;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+    private final ExecutorService batchValidationExecutor;
+
+    @InitBinder("itemSaveForm")
+    public void init(WebDataBinder dataBinder) {
+        dataBinder.setValidator(compiledValidator);
+    }
+
     @PostMapping("/add")
     public Object addItem(@RequestBody @Validated ItemSaveForm form, BindingResult bindingResult) {
         log.info("API 컨트롤러 호출");
@@ -61,4 +97,77 @@ public class ValidationItemApiController {
         log.info("성공 로직 실행");
         return form;
     }
+
+    /**
+     * 여러 상품을 저장하지 않고 검증만 한다. 상품마다 독립적이므로 여러 코어에서 나누어 검증한다
+     * 타입이 맞지 않는 값도 요청 전체를 실패시키지 않고 그 상품의 typeMismatch 오류로 돌려준다
+     *
+     * body 는 @RequestBody 로 한번에 읽지 않고 ItemRecordReader 로 한건씩 읽어서, MAX_BATCH_SIZE 를 넘는 순간 멈춘다 (413)
+     * 읽은 상품은 CHUNK_SIZE 개씩 batchValidationExecutor 에서 검증한다. 공용 ForkJoinPool 은 쓰지 않는다
+     */
+    @PostMapping("/validate")
+    public BatchValidationResult validateItems(HttpServletRequest request, Locale locale) throws IOException {
+        if (request.getContentLengthLong() > MAX_BATCH_BYTES) {
+            throw tooLarge();
+        }
+        ObjectMapper mapper = isCbor(request) ? cborHttpMessageConverter.getObjectMapper() : objectMapper;
+        ItemRecordReader reader = ItemRecordReader.jsonArray(mapper, request.getInputStream());
+        ValidationMode mode = ValidationMode.current();
+
+        List<Future<List<ItemErrorDto>>> chunks = new ArrayList<>();
+        List<Map<String, String>> chunk = new ArrayList<>(CHUNK_SIZE);
+        int total = 0;
+        try {
+            Map<String, String> fields;
+            while ((fields = reader.next()) != null) {
+                if (++total > MAX_BATCH_SIZE) {
+                    throw tooLarge();
+                }
+                chunk.add(fields);
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.add(submit(total - CHUNK_SIZE, chunk, locale, mode));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(submit(total - chunk.size(), chunk, locale, mode));
+            }
+
+            List<ItemErrorDto> errors = new ArrayList<>();
+            for (Future<List<ItemErrorDto>> future : chunks) {
+                errors.addAll(future.get()); //chunk 순서대로 모으므로 index 순서가 유지된다
+            }
+            long invalid = errors.stream().mapToInt(ItemErrorDto::index).distinct().count();
+            log.info("일괄 검증 total={}, invalid={}", total, invalid);
+            return new BatchValidationResult(total, (int) invalid, errors);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "body 형식 오류 index=" + total, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("일괄 검증 실패", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("일괄 검증 중단", e);
+        } finally {
+            chunks.forEach(future -> future.cancel(false)); //오류로 끝난 경우 남은 검증을 실행하지 않는다
+        }
+    }
+
+    private Future<List<ItemErrorDto>> submit(int firstIndex, List<Map<String, String>> chunk, Locale locale, ValidationMode mode) {
+        return batchValidationExecutor.submit(() -> {
+            List<ItemErrorDto> errors = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                errors.addAll(itemRecordValidator.validate(firstIndex + i, chunk.get(i), locale, mode).errors());
+            }
+            return errors;
+        });
+    }
+
+    private static boolean isCbor(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_CBOR);
+    }
+
+    private static ResponseStatusException tooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "최대 " + MAX_BATCH_SIZE + "건까지 검증할 수 있습니다");
+    }
 }
@@ -0,0 +1,120 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ColumnarItemStoreTest {
+
+    ItemRepository itemRepository = new ItemRepository(new ColumnarItemStore());
+
+    @Test
+    void saveAndFind() {
+        //given
+        Item item = new Item("상품A", 10000, 10);
+
+        //when
+        Item savedItem = itemRepository.save(item);
+
+        //then
+        Item findItem = itemRepository.findById(savedItem.id());
+        assertThat(findItem).isEqualTo(savedItem);
+        assertThat(findItem).isNotSameAs(savedItem); //조회할때마다 새로 만든다
+    }
+
+    @Test
+    void nullFields() {
+        //given
+        Item savedItem = itemRepository.save(new Item(null, null, null));
+
+        //when
+        Item findItem = itemRepository.findById(savedItem.id());
+
+        //then
+        assertThat(findItem.itemName()).isNull();
+        assertThat(findItem.price()).isNull();
+        assertThat(findItem.quantity()).isNull();
+    }
+
+    @Test
+    void updateItem() {
+        //given
+        Long itemId = itemRepository.save(new Item("item1", 10000, 10)).id();
+
+        //when
+        itemRepository.update(itemId, new Item("item2-긴이름", 20000, 30));
+
+        //then
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.itemName()).isEqualTo("item2-긴이름");
+        assertThat(findItem.price()).isEqualTo(20000);
+        assertThat(findItem.quantity()).isEqualTo(30);
+    }
+
+    @Test
+    void growAndPage() {
+        //given
+        for (int i = 1; i <= 5000; i++) {
+            itemRepository.save(new Item("item" + i, 1000 + i, i));
+        }
+
+        //when
+        ItemPage page = itemRepository.findPage(4990L, null, 20);
+        List<Item> all = itemRepository.findAll();
+
+        //then
+        assertThat(page.items()).extracting(Item::id).containsExactly(4991L, 4992L, 4993L, 4994L, 4995L,
+                4996L, 4997L, 4998L, 4999L, 5000L);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(all).hasSize(5000);
+        assertThat(all.get(4999).itemName()).isEqualTo("item5000");
+    }
+
+    @Test
+    void compactNames() {
+        //given : 버려진 이름이 64 바이트를 넘으면 정리한다
+        ColumnarItemStore store = new ColumnarItemStore(64);
+        List<Item> expected = new ArrayList<>();
+        long appended = 0;
+        for (int i = 1; i <= 100; i++) {
+            Item item = new Item((long) i, i % 10 == 0 ? null : "item-" + i, 10000, i, 1L);
+            store.put(item);
+            expected.add(item);
+            appended += nameBytes(item);
+        }
+
+        //when : 이름을 길이, null 여부를 바꿔 가며 계속 수정한다
+        for (int round = 1; round <= 20; round++) {
+            for (int i = 1; i <= 100; i++) {
+                String itemName = (i + round) % 7 == 0 ? null : "상품-" + i + "-" + "x".repeat((i * round) % 13);
+                Item item = new Item((long) i, itemName, 10000 + round, i, round + 1L);
+                store.put(item);
+                expected.set(i - 1, item);
+                appended += nameBytes(item);
+            }
+        }
+
+        //then : 정리가 일어났고, 모든 상품을 마지막 값으로 읽는다
+        assertThat(store.namesSize()).isLessThan((int) appended);
+        for (Item item : expected) {
+            assertThat(store.get(item.id())).isEqualTo(item);
+        }
+        assertThat(store.scanAfter(0L, 1000)).isEqualTo(expected);
+        assertThat(store.scanAfter(50L, 10)).isEqualTo(expected.subList(50, 60));
+        assertThat(store.scanBefore(101L, 1000)).isEqualTo(expected);
+    }
+
+    @Test
+    void missingId() {
+        assertThat(itemRepository.findById(1L)).isNull();
+        assertThat(itemRepository.findById(-1L)).isNull();
+    }
+
+    private static int nameBytes(Item item) {
+        return item.itemName() == null ? 0 : item.itemName().getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,134 @@
+package hello.itemservice.domain.item;
+
+import hello.itemservice.domain.item.ItemJournal.FsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ItemJournalTest {
+
+    @TempDir
+    Path directory;
+
+    JournaledItemStore open(FsyncPolicy policy, Duration snapshotInterval) {
+        ItemJournal journal = new ItemJournal(directory, policy, Duration.ofMillis(10));
+        return new JournaledItemStore(new MemoryItemStore(), journal, snapshotInterval);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FsyncPolicy.class)
+    void recover(FsyncPolicy policy) throws Exception {
+        //given
+        try (JournaledItemStore store = open(policy, Duration.ZERO)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+            itemRepository.save(new Item("itemA", 10000, 10));
+            itemRepository.save(new Item("itemB", 20000, 20));
+            itemRepository.update(1L, new Item("itemA2", 15000, 15));
+        }
+
+        //when
+        try (JournaledItemStore store = open(policy, Duration.ZERO)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+
+            //then
+            assertThat(itemRepository.count()).isEqualTo(2);
+            assertThat(itemRepository.findById(1L).itemName()).isEqualTo("itemA2");
+            assertThat(itemRepository.save(new Item("itemC", 30000, 30)).id()).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    void recoverFromLogWithoutSnapshot() throws Exception {
+        //given : close() 없이 종료된 상황 (스냅샷 없이 로그만 남음)
+        ItemJournal journal = new ItemJournal(directory, FsyncPolicy.PER_WRITE, Duration.ZERO);
+        JournaledItemStore store = new JournaledItemStore(new MemoryItemStore(), journal, Duration.ZERO);
+        ItemRepository itemRepository = new ItemRepository(store);
+        itemRepository.save(new Item("itemA", 10000, 10));
+        itemRepository.save(new Item("itemB", 20000, 20));
+        journal.close(); //프로세스가 죽으면 파일도 닫힌다. 스냅샷을 만드는 store.close() 는 호출하지 않는다
+
+        //쓰다가 죽어서 마지막 레코드가 잘린 상황을 만든다
+        try (FileChannel log = FileChannel.open(directory.resolve("items.log"), StandardOpenOption.WRITE)) {
+            log.truncate(log.size() - 3);
+        }
+
+        //when
+        try (JournaledItemStore reopened = open(FsyncPolicy.PER_WRITE, Duration.ZERO)) {
+            //then
+            assertThat(reopened.size()).isEqualTo(1);
+            assertThat(reopened.get(1L).itemName()).isEqualTo("itemA");
+        }
+    }
+
+    @Test
+    void checkpoint() throws Exception {
+        //given
+        try (JournaledItemStore store = open(FsyncPolicy.BATCH, Duration.ZERO)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+            itemRepository.save(new Item("itemA", 10000, 10));
+            store.checkpoint();
+            itemRepository.save(new Item("itemB", 20000, 20));
+        }
+
+        //when
+        try (JournaledItemStore store = open(FsyncPolicy.BATCH, Duration.ZERO)) {
+            //then
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void rejectOversizedRecord() throws Exception {
+        //given
+        try (JournaledItemStore store = open(FsyncPolicy.PER_WRITE, Duration.ZERO)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+            itemRepository.save(new Item("itemA", 10000, 10));
+
+            //when : 다시 열때 읽을 수 없는 크기의 레코드는 쓰기 전에 거절한다
+            assertThatThrownBy(() -> itemRepository.save(new Item("a".repeat(2 * 1024 * 1024), 10000, 10)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            itemRepository.save(new Item("itemC", 30000, 30));
+            store.checkpoint(); //스냅샷에도 남지 않았다
+            itemRepository.save(new Item("itemD", 40000, 40));
+        }
+
+        //then : 거절 뒤의 쓰기도 남아 있다
+        try (JournaledItemStore store = open(FsyncPolicy.PER_WRITE, Duration.ZERO)) {
+            assertThat(store.size()).isEqualTo(3);
+            assertThat(store.get(3L).itemName()).isEqualTo("itemC");
+            assertThat(store.get(4L).itemName()).isEqualTo("itemD");
+        }
+    }
+
+    @Test
+    void corruptedRecordInTheMiddle() throws Exception {
+        //given
+        ItemJournal journal = new ItemJournal(directory, FsyncPolicy.PER_WRITE, Duration.ZERO);
+        JournaledItemStore store = new JournaledItemStore(new MemoryItemStore(), journal, Duration.ZERO);
+        ItemRepository itemRepository = new ItemRepository(store);
+        itemRepository.save(new Item("itemA", 10000, 10));
+        itemRepository.save(new Item("itemB", 20000, 20));
+        journal.close();
+
+        //첫번째 레코드의 내용을 바꾼다. 뒤에 정상 레코드가 있으므로 쓰다가 끊긴 꼬리가 아니다
+        try (FileChannel log = FileChannel.open(directory.resolve("items.log"), StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.wrap(new byte[]{42}), 12);
+        }
+
+        //when, then : 뒤의 레코드를 잘라내지 않고 실패한다
+        assertThatThrownBy(() -> open(FsyncPolicy.PER_WRITE, Duration.ZERO))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("offset=0");
+        assertThat(Files.size(directory.resolve("items.log"))).isGreaterThan(12);
+    }
+}
@@ -0,0 +1,141 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 여러 스레드가 동시에 save(), update(), findById() 를 호출해도
+ * 저장이 유실되거나, id 가 중복되거나, 반쯤 수정된 상품이 조회되지 않는지 확인한다
+ */
+class ItemRepositoryConcurrencyTest {
+
+    static final int THREADS = 32;
+    static final int SAVES_PER_THREAD = 5_000;
+
+    ItemRepository itemRepository = new ItemRepository();
+
+    @BeforeEach
+    void beforeEach() {
+        itemRepository.clearStore();
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.clearStore();
+    }
+
+    @Test
+    void concurrentSave() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        //when
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SAVES_PER_THREAD; i++) {
+                    Item savedItem = itemRepository.save(new Item("item", 10000, 10));
+                    ids.add(savedItem.id());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        //then
+        int total = THREADS * SAVES_PER_THREAD;
+        assertThat(ids).hasSize(total); //중복 id 없음
+        assertThat(itemRepository.findAll()).hasSize(total); //유실된 저장 없음
+    }
+
+    @Test
+    void concurrentUpdateAndRead() throws Exception {
+        //given
+        Long itemId = itemRepository.save(new Item("item-1", 1000, 1)).id();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 1; n <= 10_000; n++) {
+                    itemRepository.update(itemId, new Item("item-" + n, n * 1000, n));
+                }
+            }));
+        }
+        for (int t = 0; t < THREADS / 2; t++) {
+            futures.add(executor.submit(() -> {
+                while (running.get()) {
+                    //이름, 가격, 수량은 항상 같은 n 으로 함께 바뀌어야 한다
+                    Item findItem = itemRepository.findById(itemId);
+                    int n = findItem.quantity();
+                    assertThat(findItem.itemName()).isEqualTo("item-" + n);
+                    assertThat(findItem.price()).isEqualTo(n * 1000);
+                }
+            }));
+        }
+        for (int i = 0; i < THREADS / 2; i++) {
+            futures.get(i).get(1, TimeUnit.MINUTES);
+        }
+        running.set(false);
+
+        //then
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES); //읽기 스레드의 검증 실패가 있으면 여기서 예외가 발생한다
+        }
+        executor.shutdown();
+        assertThat(itemRepository.findAll()).hasSize(1);
+    }
+
+    @Test
+    void concurrentVersionedUpdate() throws Exception {
+        //given
+        Long itemId = itemRepository.save(new Item("item", 1000, 0)).id();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        int increments = 1_000;
+
+        //when : 모든 스레드가 같은 상품의 수량을 1씩 올린다. 충돌하면 다시 읽어서 재시도한다
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int n = 0; n < increments; n++) {
+                    while (true) {
+                        Item item = itemRepository.findById(itemId);
+                        Item updateParam = new Item(item.itemName(), item.price(), item.quantity() + 1);
+                        if (itemRepository.update(itemId, updateParam, item.version())) {
+                            break;
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //then : 잃어버린 수정이 없다
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.quantity()).isEqualTo(THREADS * increments);
+        assertThat(findItem.version()).isEqualTo(1L + THREADS * increments);
+    }
+}
@@ -25,8 +25,10 @@ class ItemRepositoryTest {
         Item savedItem = itemRepository.save(item);
 
         //then
-        Item findItem = itemRepository.findById(item.getId());
+        Item findItem = itemRepository.findById(savedItem.id());
         assertThat(findItem).isEqualTo(savedItem);
+        assertThat(savedItem.version()).isEqualTo(1L);
+        assertThat(item.id()).isNull(); //받은 상품은 바꾸지 않는다
     }
 
     @Test
@@ -35,15 +37,15 @@ class ItemRepositoryTest {
         Item item1 = new Item("item1", 10000, 10);
         Item item2 = new Item("item2", 20000, 20);
 
-        itemRepository.save(item1);
-        itemRepository.save(item2);
+        Item savedItem1 = itemRepository.save(item1);
+        Item savedItem2 = itemRepository.save(item2);
 
         //when
         List<Item> result = itemRepository.findAll();
 
         //then
         assertThat(result.size()).isEqualTo(2);
-        assertThat(result).contains(item1, item2);
+        assertThat(result).contains(savedItem1, savedItem2);
     }
 
     @Test
@@ -52,7 +54,7 @@ class ItemRepositoryTest {
         Item item = new Item("item1", 10000, 10);
 
         Item savedItem = itemRepository.save(item);
-        Long itemId = savedItem.getId();
+        Long itemId = savedItem.id();
 
         //when
         Item updateParam = new Item("item2", 20000, 30);
@@ -61,8 +63,148 @@ class ItemRepositoryTest {
         Item findItem = itemRepository.findById(itemId);
 
         //then
-        assertThat(findItem.getItemName()).isEqualTo(updateParam.getItemName());
-        assertThat(findItem.getPrice()).isEqualTo(updateParam.getPrice());
-        assertThat(findItem.getQuantity()).isEqualTo(updateParam.getQuantity());
+        assertThat(findItem.itemName()).isEqualTo(updateParam.itemName());
+        assertThat(findItem.price()).isEqualTo(updateParam.price());
+        assertThat(findItem.quantity()).isEqualTo(updateParam.quantity());
+    }
+
+    @Test
+    void updateWithVersion() {
+        //given
+        Item savedItem = itemRepository.save(new Item("item1", 10000, 10));
+        Long itemId = savedItem.id();
+        assertThat(savedItem.version()).isEqualTo(1L);
+
+        //when
+        boolean first = itemRepository.update(itemId, new Item("item2", 20000, 20), 1L);
+        boolean stale = itemRepository.update(itemId, new Item("item3", 30000, 30), 1L); //같은 version 으로 다시 수정
+
+        //then
+        assertThat(first).isTrue();
+        assertThat(stale).isFalse();
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.itemName()).isEqualTo("item2");
+        assertThat(findItem.version()).isEqualTo(2L);
+        assertThat(itemRepository.update(999L, new Item("item4", 40000, 40), 1L)).isFalse();
+    }
+
+    @Test
+    void findAllSnapshot() {
+        //given
+        itemRepository.save(new Item("item1", 10000, 10));
+
+        //when
+        List<Item> first = itemRepository.findAll();
+        List<Item> second = itemRepository.findAll();
+        itemRepository.save(new Item("item2", 20000, 20));
+        List<Item> third = itemRepository.findAll();
+
+        //then
+        assertThat(second).isSameAs(first); //변경이 없으면 같은 스냅샷을 재사용한다
+        assertThat(third).isNotSameAs(first).hasSize(2);
+        assertThat(first).hasSize(1);
+        assertThatThrownBy(() -> first.add(Item.EMPTY))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void findPage() {
+        //given
+        for (int i = 1; i <= 5; i++) {
+            itemRepository.save(new Item("item" + i, 10000, 10));
+        }
+
+        //when
+        ItemPage first = itemRepository.findPage(null, null, 2);
+        ItemPage second = itemRepository.findPage(first.nextCursor(), null, 2);
+        ItemPage last = itemRepository.findPage(second.nextCursor(), null, 2);
+        ItemPage back = itemRepository.findPage(null, last.prevCursor(), 2);
+
+        //then
+        assertThat(first.items()).extracting(Item::itemName).containsExactly("item1", "item2");
+        assertThat(first.hasPrev()).isFalse();
+        assertThat(second.items()).extracting(Item::itemName).containsExactly("item3", "item4");
+        assertThat(last.items()).extracting(Item::itemName).containsExactly("item5");
+        assertThat(last.hasNext()).isFalse();
+        assertThat(back.items()).isEqualTo(second.items());
+    }
+
+    @Test
+    void findByPriceBetween() {
+        //given
+        Item itemA = itemRepository.save(new Item("itemA", 5000, 10));
+        Item itemB = itemRepository.save(new Item("itemB", 20000, 10));
+        Item itemC = itemRepository.save(new Item("itemC", 10000, 10));
+        itemRepository.save(new Item("itemD", 60000, 10));
+
+        //when
+        List<Item> result = itemRepository.findByPriceBetween(10000, 50000, 10);
+
+        //then
+        assertThat(result).containsExactly(itemC, itemB); //가격 순서
+    }
+
+    @Test
+    void findByItemNameStartingWith() {
+        //given
+        Item apple = itemRepository.save(new Item("apple", 10000, 10));
+        Item apricot = itemRepository.save(new Item("apricot", 10000, 10));
+        itemRepository.save(new Item("banana", 10000, 10));
+
+        //when
+        List<Item> result = itemRepository.findByItemNameStartingWith("ap", 10);
+
+        //then
+        assertThat(result).containsExactly(apple, apricot);
+    }
+
+    @Test
+    void findByItemNameStartingWithPrice() {
+        //given : prefix 로 시작하는 상품이 MAX_PAGE_SIZE 보다 많고, 가격이 맞는 상품은 이름 순서로 맨 뒤에 있다
+        for (int i = 0; i < ItemRepository.MAX_PAGE_SIZE * 2; i++) {
+            itemRepository.save(new Item(String.format("item-%04d", i), 10000, 10));
+        }
+        Item late = itemRepository.save(new Item("item-9999", 50000, 10));
+
+        //when
+        List<Item> result = itemRepository.findByItemNameStartingWith("item-", 40000, 60000, 10);
+
+        //then
+        assertThat(result).containsExactly(late);
+        assertThat(itemRepository.findByItemNameStartingWith("item-", 60000, 40000, 10)).isEmpty();
+    }
+
+    @Test
+    void updateKeepsIndexesConsistent() {
+        //given
+        Item savedItem = itemRepository.save(new Item("apple", 10000, 10));
+
+        //when
+        itemRepository.update(savedItem.id(), new Item("banana", 30000, 10));
+
+        //then
+        assertThat(itemRepository.findByPriceBetween(10000, 10000, 10)).isEmpty();
+        assertThat(itemRepository.findByItemNameStartingWith("app", 10)).isEmpty();
+        assertThat(itemRepository.findByPriceBetween(30000, 30000, 10))
+                .extracting(Item::itemName).containsExactly("banana");
+        assertThat(itemRepository.findByItemNameStartingWith("ban", 10))
+                .extracting(Item::price).containsExactly(30000);
+    }
+
+    @Test
+    void indexMaxItems() {
+        //given : 인덱스는 상품 2개까지만 유지한다
+        ItemRepository boundedRepository = new ItemRepository(new MemoryItemStore(), 2);
+        Item itemA = boundedRepository.save(new Item("apple", 10000, 10));
+        boundedRepository.save(new Item("banana", 20000, 10));
+        assertThat(boundedRepository.isIndexReady()).isTrue();
+
+        //when
+        Item itemC = boundedRepository.save(new Item("apricot", 5000, 10));
+
+        //then : 인덱스를 버리고 전체를 훑어서 같은 결과를 낸다
+        assertThat(boundedRepository.isIndexReady()).isFalse();
+        assertThat(boundedRepository.findByPriceBetween(0, 10000, 10)).containsExactly(itemC, itemA);
+        assertThat(boundedRepository.findByItemNameStartingWith("ap", 10)).containsExactly(itemA, itemC);
     }
 }
@@ -0,0 +1,89 @@
+package hello.itemservice.domain.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MappedItemStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void saveAndFind() throws Exception {
+        try (MappedItemStore store = new MappedItemStore(directory)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+
+            Item savedItem = itemRepository.save(new Item("상품A", 10000, 10));
+
+            assertThat(itemRepository.findById(savedItem.id())).isEqualTo(savedItem);
+        }
+    }
+
+    @Test
+    void reopen() throws Exception {
+        //given
+        try (MappedItemStore store = new MappedItemStore(directory)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+            for (int i = 1; i <= 3000; i++) { //초기 크기보다 많이 넣어서 파일 확장도 확인한다
+                itemRepository.save(new Item("item" + i, 1000 + i, i));
+            }
+            itemRepository.update(1L, new Item("updated", 5000, 5));
+        }
+
+        //when
+        try (MappedItemStore store = new MappedItemStore(directory)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+
+            //then
+            assertThat(itemRepository.count()).isEqualTo(3000);
+            assertThat(itemRepository.findById(1L).itemName()).isEqualTo("updated");
+            assertThat(itemRepository.findById(3000L).price()).isEqualTo(4000);
+
+            Item newItem = itemRepository.save(new Item("new", 10000, 1));
+            assertThat(newItem.id()).isEqualTo(3001L); //이어서 id 를 발급한다
+        }
+    }
+
+    @Test
+    void nullFields() throws Exception {
+        try (MappedItemStore store = new MappedItemStore(directory)) {
+            store.put(new Item(1L, null, null, null, 1L));
+
+            Item findItem = store.get(1L);
+            assertThat(findItem.itemName()).isNull();
+            assertThat(findItem.price()).isNull();
+            assertThat(findItem.quantity()).isNull();
+        }
+    }
+
+    @Test
+    void compactNames() throws Exception {
+        //given : 이름을 계속 바꿔서 names.dat 에 버려진 이름이 쌓인다
+        try (MappedItemStore store = new MappedItemStore(directory)) {
+            ItemRepository itemRepository = new ItemRepository(store);
+            itemRepository.save(new Item("itemA", 10000, 10));
+            itemRepository.save(new Item(null, 20000, 20));
+            for (int i = 0; i < 20000; i++) {
+                itemRepository.update(1L, new Item(String.format("renamed-item-%05d", i), 10000, 10));
+            }
+
+            //then : 버려진 크기가 살아있는 크기(최소 64KB)를 넘으면 줄이므로 names.dat 가 계속 늘지 않는다
+            assertThat(Files.size(directory.resolve("names.dat"))).isLessThanOrEqualTo(128 * 1024);
+            assertThat(itemRepository.findById(1L).itemName()).isEqualTo("renamed-item-19999");
+        }
+
+        //다시 열어도 같다
+        try (MappedItemStore store = new MappedItemStore(directory)) {
+            store.compactNames();
+            assertThat(Files.size(directory.resolve("names.dat"))).isEqualTo(64 * 1024);
+            assertThat(store.get(1L).itemName()).isEqualTo("renamed-item-19999");
+            assertThat(store.get(2L).itemName()).isNull();
+            assertThat(store.get(2L).price()).isEqualTo(20000);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package hello.itemservice.load;
+
+import hello.itemservice.ItemServiceApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 플랫폼 스레드 / 가상 스레드로 요청을 처리할때의 처리량, 지연 시간 비교 (./gradlew loadTest)
+ *
+ * 저장소는 쓰기마다 fsync 하는 journal 을 사용해서 요청 처리 중에 실제 블로킹 I/O 가 일어나게 한다
+ * 목록 조회(GET) 4 : 등록(POST) 1 비율로 CONCURRENCY 개의 요청을 동시에 유지한다
+ */
+@Tag("load")
+class ThreadModeLoadTest {
+
+    static final int CONCURRENCY = Integer.getInteger("load.concurrency", 1000);
+    static final int REQUESTS = Integer.getInteger("load.requests", 20000);
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "virtual={0}")
+    @ValueSource(booleans = {false, true})
+    void load(boolean virtual) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ItemServiceApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "item.repository.store=journal",
+                        "item.repository.journal.directory=" + directory,
+                        "item.repository.journal.fsync=per-write",
+                        "item.metrics.enabled=false",
+                        "item.write-limit.enabled=false", //한 클라이언트가 등록을 몰아서 보내므로 제한하지 않는다
+                        "logging.level.root=warn")
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port + "/validation/v4/items";
+
+            run(baseUrl, Math.min(REQUESTS, 2000)); //워밍업
+            Result result = run(baseUrl, REQUESTS);
+
+            System.out.printf("virtual=%s concurrency=%d requests=%d : %.0f req/s, p50=%.2fms, p99=%.2fms, max=%.2fms, failed=%d%n",
+                    virtual, CONCURRENCY, REQUESTS, result.throughput(), result.percentile(0.50),
+                    result.percentile(0.99), result.percentile(1.0), result.failed());
+            assertThat(result.failed()).isZero();
+        }
+    }
+
+    Result run(String baseUrl, int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request(baseUrl, index), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - requestStart;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        client.close();
+        Arrays.sort(latencies);
+        return new Result(latencies, elapsed, failed.get());
+    }
+
+    HttpRequest request(String baseUrl, int index) {
+        if (index % 5 == 0) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/add"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("itemName=load" + index + "&price=10000&quantity=10"))
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl)).GET().build();
+    }
+
+    record Result(long[] sortedLatencies, long elapsedNanos, int failed) {
+
+        double throughput() {
+            return sortedLatencies.length / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        double percentile(double percentile) {
+            int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
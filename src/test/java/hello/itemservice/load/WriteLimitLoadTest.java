@@ -0,0 +1,73 @@
+package hello.itemservice.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * 처리할 수 있는 양의 수십배를 보내도 거절은 바인딩 전에 끝나므로 지연 시간이 늘지 않는다 (./gradlew loadTest)
+ */
+@Tag("load")
+@SpringBootTest(properties = {
+        "item.write-limit.api.rate=10",
+        "item.write-limit.api.burst=5",
+        "item.write-limit.api.max-concurrent=4",
+        "item.client-header=X-Client-Id",
+        "logging.level.root=warn"})
+@AutoConfigureMockMvc
+class WriteLimitLoadTest {
+
+    static final int THREADS = Integer.getInteger("load.threads", 16);
+    static final int REQUESTS_PER_THREAD = Integer.getInteger("load.requests-per-thread", 100);
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void overloadLatency() throws Exception {
+        //when : 클라이언트 4개가 THREADS 스레드로 동시에 보낸다
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                String client = "overload-client-" + (t % 4);
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[REQUESTS_PER_THREAD];
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        long start = System.nanoTime();
+                        mockMvc.perform(post("/validation/api/items/add")
+                                .header("X-Client-Id", client)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"itemName\":\"itemA\",\"price\":10000,\"quantity\":10}"));
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                }));
+            }
+        }
+        long[] latencies = new long[THREADS * REQUESTS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(futures.get(t).get(), 0, latencies, t * REQUESTS_PER_THREAD, REQUESTS_PER_THREAD);
+        }
+        Arrays.sort(latencies);
+
+        //then
+        double p50 = latencies[latencies.length / 2] / 1_000_000.0;
+        double p99 = latencies[(int) (latencies.length * 0.99)] / 1_000_000.0;
+        System.out.printf("write-limit overload requests=%d : p50=%.2fms, p99=%.2fms%n", latencies.length, p50, p99);
+        assertThat(p99).isLessThan(500);
+    }
+}
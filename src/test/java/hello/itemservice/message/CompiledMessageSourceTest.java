@@ -0,0 +1,107 @@
+package hello.itemservice.message;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CompiledMessageSourceTest {
+
+    CompiledMessageSource compiled(List<String> basenames) {
+        return new CompiledMessageSource(new DefaultResourceLoader(), basenames, StandardCharsets.UTF_8, true, Duration.ZERO);
+    }
+
+    /**
+     * 모든 메시지 코드가 ResourceBundleMessageSource 와 같은 결과여야 한다
+     */
+    @Test
+    void sameMessagesAsResourceBundle() throws IOException {
+        ResourceBundleMessageSource resourceBundle = new ResourceBundleMessageSource();
+        resourceBundle.setBasenames("messages", "errors");
+        resourceBundle.setDefaultEncoding("UTF-8");
+        CompiledMessageSource compiled = compiled(List.of("messages", "errors"));
+
+        Properties codes = new Properties();
+        for (String file : List.of("/messages.properties", "/messages_en.properties", "/errors.properties")) {
+            try (InputStream in = getClass().getResourceAsStream(file)) {
+                codes.load(in);
+            }
+        }
+
+        Object[] args = {"A", 1000, 2000};
+        for (Locale locale : List.of(Locale.KOREA, Locale.KOREAN, Locale.ENGLISH, Locale.US, Locale.FRANCE)) {
+            for (String code : codes.stringPropertyNames()) {
+                assertThat(compiled.getMessage(code, null, locale))
+                        .as("code=%s, locale=%s", code, locale)
+                        .isEqualTo(resourceBundle.getMessage(code, null, locale));
+                assertThat(compiled.getMessage(code, args, locale))
+                        .as("code=%s, locale=%s", code, locale)
+                        .isEqualTo(resourceBundle.getMessage(code, args, locale));
+            }
+        }
+    }
+
+    @Test
+    void resolvable() {
+        CompiledMessageSource compiled = compiled(List.of("messages", "errors"));
+
+        DefaultMessageSourceResolvable field = new DefaultMessageSourceResolvable(new String[]{"item.price", "price"}, "가격");
+        DefaultMessageSourceResolvable range = new DefaultMessageSourceResolvable(
+                new String[]{"Range.item.price", "Range.price", "Range.java.lang.Integer", "Range"},
+                new Object[]{field, 1000000L, 1000L});
+
+        assertThat(compiled.getMessage(range, Locale.KOREA)).isEqualTo("가격, 1,000 ~ 1,000,000 허용");
+        assertThatThrownBy(() -> compiled.getMessage(new DefaultMessageSourceResolvable("no_code"), Locale.KOREA))
+                .isInstanceOf(NoSuchMessageException.class);
+        assertThat(compiled.stats().lookups()).isEqualTo(2);
+        assertThat(compiled.stats().misses()).isEqualTo(1);
+    }
+
+    /**
+     * 요청 Locale 마다 테이블을 만들지 않는다. 번들 파일이 있는 Locale(en)과 기본(ROOT)만 있다
+     */
+    @Test
+    void tablesOnlyForBundleLocales() {
+        CompiledMessageSource compiled = compiled(List.of("messages", "errors"));
+        int locales = compiled.stats().locales();
+
+        for (int i = 0; i < 1000; i++) {
+            Locale locale = Locale.of("l" + i, "C" + i);
+            compiled.getMessage("page.items", null, locale);
+        }
+        String englishUs = compiled.getMessage("page.items", null, Locale.US);
+
+        assertThat(compiled.stats().locales()).isEqualTo(locales).isEqualTo(2);
+        assertThat(englishUs).isEqualTo(compiled.getMessage("page.items", null, Locale.ENGLISH));
+    }
+
+    @Test
+    void reloadWhenModified(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("messages.properties");
+        Files.writeString(file, "hello=안녕");
+        CompiledMessageSource compiled = compiled(List.of("file:" + directory.resolve("messages")));
+        assertThat(compiled.getMessage("hello", null, Locale.KOREA)).isEqualTo("안녕");
+
+        Files.writeString(file, "hello=반가워");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        compiled.reloadIfModified();
+
+        assertThat(compiled.getMessage("hello", null, Locale.KOREA)).isEqualTo("반가워");
+        assertThat(compiled.stats().reloads()).isEqualTo(1);
+    }
+}
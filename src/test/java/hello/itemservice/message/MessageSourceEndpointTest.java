@@ -0,0 +1,57 @@
+package hello.itemservice.message;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = "item.metrics.enabled=true")
+@AutoConfigureMockMvc
+class MessageSourceEndpointTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    CompiledMessageSource messageSource;
+
+    @Test
+    void lookupTimer() {
+        //when
+        messageSource.getMessage("label.item.itemName", null, Locale.KOREA);
+        assertThatThrownBy(() -> messageSource.getMessage("no_code", null, Locale.KOREA))
+                .isInstanceOf(NoSuchMessageException.class);
+
+        //then
+        assertThat(registry.get("item.messages.lookup").tag("outcome", "hit").timer().count()).isGreaterThan(0);
+        assertThat(registry.get("item.messages.lookup").tag("outcome", "miss").timer().count()).isGreaterThan(0);
+    }
+
+    @Test
+    void readOnlyByDefault() throws Exception {
+        //given
+        long generation = messageSource.generation();
+
+        //when
+        MockHttpServletResponse stats = mockMvc.perform(get("/actuator/messages")).andReturn().getResponse();
+        MockHttpServletResponse reload = mockMvc.perform(post("/actuator/messages")).andReturn().getResponse();
+
+        //then : 통계는 보여주고, 다시 읽기는 받지 않으므로 ETag 도 바뀌지 않는다
+        assertThat(stats.getStatus()).isEqualTo(200);
+        assertThat(stats.getContentAsString()).contains("lookups", "reloads");
+        assertThat(reload.getStatus()).isGreaterThanOrEqualTo(400);
+        assertThat(messageSource.generation()).isEqualTo(generation);
+    }
+}
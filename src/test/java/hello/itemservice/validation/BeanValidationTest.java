@@ -18,11 +18,7 @@ public class BeanValidationTest {
         ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
         Validator validator = factory.getValidator();
 
-        Item item = new Item();
-
-        item.setItemName(" ");//공백입력
-        item.setPrice(0);
-        item.setQuantity(10000);
+        Item item = new Item(" ", 0, 10000); //상품명은 공백입력
         /**
          * 검증 대상 (item) 을 직접 검증기에 넣고 그 결과를 받는다. Set 에는 ConstraintViolation 이라는 검증 오류가 담긴다
          * 따라서 결과가 비어있으면 검증 오류라는 것이다
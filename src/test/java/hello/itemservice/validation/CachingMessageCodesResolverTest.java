@@ -0,0 +1,35 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.web.validation.CachingMessageCodesResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.DefaultMessageCodesResolver;
+import org.springframework.validation.MessageCodesResolver;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class CachingMessageCodesResolverTest {
+
+    MessageCodesResolver defaultResolver = new DefaultMessageCodesResolver();
+    MessageCodesResolver cachingResolver = new CachingMessageCodesResolver();
+
+    @Test
+    void sameCodesAsDefault() {
+        for (int i = 0; i < 2; i++) { //두번째는 캐시에서 꺼낸다
+            assertThat(cachingResolver.resolveMessageCodes("required", "item"))
+                    .containsExactly(defaultResolver.resolveMessageCodes("required", "item"));
+            assertThat(cachingResolver.resolveMessageCodes("required", "item", "itemName", String.class))
+                    .containsExactly(defaultResolver.resolveMessageCodes("required", "item", "itemName", String.class));
+            assertThat(cachingResolver.resolveMessageCodes("required", "item", "itemName", null))
+                    .containsExactly(defaultResolver.resolveMessageCodes("required", "item", "itemName", null));
+        }
+    }
+
+    @Test
+    void returnsCopy() {
+        String[] first = cachingResolver.resolveMessageCodes("required", "item", "itemName", String.class);
+        first[0] = "changed";
+
+        String[] second = cachingResolver.resolveMessageCodes("required", "item", "itemName", String.class);
+        assertThat(second[0]).isEqualTo("required.item.itemName");
+    }
+}
@@ -0,0 +1,130 @@
+package hello.itemservice.validation;
+
+import hello.itemservice.web.validation.CompiledValidator;
+import hello.itemservice.web.validation.ValidationMode;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import hello.itemservice.web.validation.form.ItemUpdateForm;
+import jakarta.validation.constraints.Size;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * CompiledValidator 는 Hibernate Validator(@Validated) 와 같은 오류를 만들어야 한다
+ */
+class CompiledValidatorTest {
+
+    static LocalValidatorFactoryBean hibernate;
+    static CompiledValidator compiled;
+
+    @BeforeAll
+    static void beforeAll() {
+        hibernate = new LocalValidatorFactoryBean();
+        hibernate.afterPropertiesSet();
+        compiled = CompiledValidator.compile(hibernate, ItemSaveForm.class, ItemUpdateForm.class);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        hibernate.close();
+    }
+
+    @Test
+    void sameErrorsAsHibernate() {
+        for (Object form : forms()) {
+            assertThat(errors(compiled, form))
+                    .as("form = %s", form)
+                    .isEqualTo(errors(hibernate, form));
+        }
+    }
+
+    @Test
+    void errorCodes() {
+        ItemSaveForm form = saveForm(" ", 999, 10000);
+
+        BindingResult bindingResult = new BeanPropertyBindingResult(form, "item");
+        compiled.validate(form, bindingResult);
+
+        FieldError price = bindingResult.getFieldError("price");
+        assertThat(price.getCodes()).containsExactly("Range.item.price", "Range.price", "Range.java.lang.Integer", "Range");
+        assertThat(Arrays.copyOfRange(price.getArguments(), 1, 3)).containsExactly(1000000L, 1000L);
+        assertThat(bindingResult.getFieldError("itemName").getCode()).isEqualTo("NotBlank");
+        assertThat(bindingResult.getFieldError("quantity").getCode()).isEqualTo("Max");
+    }
+
+    @Test
+    void failFast() {
+        ItemSaveForm form = saveForm(" ", 999, 10000);
+
+        BindingResult bindingResult = new BeanPropertyBindingResult(form, "item");
+        compiled.validate(form, bindingResult, ValidationMode.FAIL_FAST);
+
+        assertThat(bindingResult.getErrorCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unsupportedConstraint() {
+        assertThatThrownBy(() -> CompiledValidator.compile(hibernate, SizeForm.class))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    public static class SizeForm {
+
+        @Size(max = 10)
+        private String itemName;
+
+        public String getItemName() {
+            return itemName;
+        }
+    }
+
+    static Set<String> errors(Validator validator, Object form) {
+        BindingResult bindingResult = new BeanPropertyBindingResult(form, "item");
+        validator.validate(form, bindingResult);
+        return bindingResult.getFieldErrors().stream()
+                .map(error -> error.getField() + " " + Arrays.toString(error.getCodes()) + " "
+                        + Arrays.toString(error.getArguments()) + " " + error.getRejectedValue() + " " + error.getDefaultMessage())
+                .collect(Collectors.toSet());
+    }
+
+    static List<Object> forms() {
+        List<Object> forms = new ArrayList<>();
+        for (String itemName : Arrays.asList(null, "", " ", "itemA")) {
+            for (Integer price : Arrays.asList(null, 999, 1000, 1000000, 1000001)) {
+                for (Integer quantity : Arrays.asList(null, 0, 9999, 10000)) {
+                    forms.add(saveForm(itemName, price, quantity));
+
+                    ItemUpdateForm updateForm = new ItemUpdateForm();
+                    updateForm.setId(quantity == null ? null : 1L);
+                    updateForm.setItemName(itemName);
+                    updateForm.setPrice(price);
+                    updateForm.setQuantity(quantity);
+                    updateForm.setVersion(price == null ? null : 1L);
+                    forms.add(updateForm);
+                }
+            }
+        }
+        return forms;
+    }
+
+    static ItemSaveForm saveForm(String itemName, Integer price, Integer quantity) {
+        ItemSaveForm form = new ItemSaveForm();
+        form.setItemName(itemName);
+        form.setPrice(price);
+        form.setQuantity(quantity);
+        return form;
+    }
+}
@@ -0,0 +1,156 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.idempotency.IdempotencyCache;
+import hello.itemservice.web.idempotency.IdempotencyFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyTest {
+
+    static final String IN_FLIGHT_KEY = IdempotencyFilter.cacheKey("POST", "/validation/v4/items/add", "127.0.0.1", "in-flight-1");
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    IdempotencyCache idempotencyCache;
+
+    @Test
+    void addItemRetry() throws Exception {
+        //given
+        MockHttpServletResponse first = addItem("add-retry-1");
+        int count = itemRepository.count();
+        assertThat(first.getStatus()).isEqualTo(302);
+
+        //when : 같은 key 로 다시 보낸다
+        MockHttpServletResponse retry = addItem("add-retry-1");
+
+        //then : 저장하지 않고 같은 상품으로 리다이렉트한다
+        assertThat(retry.getStatus()).isEqualTo(302);
+        assertThat(retry.getHeader(HttpHeaders.LOCATION)).isEqualTo(first.getHeader(HttpHeaders.LOCATION));
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(itemRepository.count()).isEqualTo(count);
+
+        //다른 key 는 새로 저장한다
+        MockHttpServletResponse other = addItem("add-retry-2");
+        assertThat(other.getHeader(HttpHeaders.LOCATION)).isNotEqualTo(first.getHeader(HttpHeaders.LOCATION));
+        assertThat(itemRepository.count()).isEqualTo(count + 1);
+    }
+
+    @Test
+    void notAcceptable() throws Exception {
+        //given : JSON 응답을 보관한다
+        IdempotencyFilter filter = new IdempotencyFilter(new IdempotencyCache(100, Duration.ofMinutes(1)), new ClientKeyResolver(null));
+        FilterChain chain = (request, response) -> {
+            IdempotencyFilter.stored((HttpServletRequest) request);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"itemName\":\"itemA\"}");
+        };
+        filter.doFilter(jsonRequest("json-1", MediaType.APPLICATION_JSON_VALUE), new MockHttpServletResponse(), chain);
+
+        //when
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest("json-1", MediaType.APPLICATION_JSON_VALUE), retry, chain);
+        MockHttpServletResponse cbor = new MockHttpServletResponse();
+        filter.doFilter(jsonRequest("json-1", "application/cbor"), cbor, chain);
+
+        //then : 받을 수 있으면 그대로, 보관한 응답(JSON)을 받을 수 없으면 다시 처리하지 않고 406
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo("{\"itemName\":\"itemA\"}");
+        assertThat(cbor.getStatus()).isEqualTo(406);
+    }
+
+    @Test
+    void validationFailureIsNotStored() throws Exception {
+        //given : 검증 실패. 저장하지 않았으므로 표시도 없다
+        MockHttpServletResponse first = addItem("add-invalid-1", "");
+        assertThat(first.getStatus()).isEqualTo(200);
+        int count = itemRepository.count();
+
+        //when : 값을 고쳐서 같은 key 로 다시 보낸다
+        MockHttpServletResponse retry = addItem("add-invalid-1", "idempotentItem");
+
+        //then : 새로 처리한다
+        assertThat(retry.getStatus()).isEqualTo(302);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(itemRepository.count()).isEqualTo(count + 1);
+    }
+
+    @Test
+    void keyPerClient() throws Exception {
+        //given
+        MockHttpServletResponse first = addItem("shared-key-1");
+        int count = itemRepository.count();
+
+        //when : 다른 클라이언트가 같은 key 를 쓴다
+        MockHttpServletResponse other = mockMvc.perform(post("/validation/v4/items/add")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.2");
+                            return request;
+                        })
+                        .header(IdempotencyFilter.HEADER, "shared-key-1")
+                        .param("itemName", "otherClientItem")
+                        .param("price", "10000")
+                        .param("quantity", "10"))
+                .andReturn().getResponse();
+
+        //then : 처음 클라이언트의 응답이 아니라 새로 저장한다
+        assertThat(other.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(other.getHeader(HttpHeaders.LOCATION)).isNotEqualTo(first.getHeader(HttpHeaders.LOCATION));
+        assertThat(itemRepository.count()).isEqualTo(count + 1);
+    }
+
+    @Test
+    void inFlight() throws Exception {
+        //given : 처음 요청이 아직 처리중이다
+        assertThat(idempotencyCache.start(IN_FLIGHT_KEY)).isNull();
+
+        //when
+        MockHttpServletResponse retry = addItem("in-flight-1");
+
+        //then
+        assertThat(retry.getStatus()).isEqualTo(409);
+        idempotencyCache.abandon(IN_FLIGHT_KEY);
+        assertThat(addItem("in-flight-1").getStatus()).isEqualTo(302);
+    }
+
+    private MockHttpServletResponse addItem(String idempotencyKey) throws Exception {
+        return addItem(idempotencyKey, "idempotentItem");
+    }
+
+    private MockHttpServletResponse addItem(String idempotencyKey, String itemName) throws Exception {
+        return mockMvc.perform(post("/validation/v4/items/add")
+                        .header(IdempotencyFilter.HEADER, idempotencyKey)
+                        .param("itemName", itemName)
+                        .param("price", "10000")
+                        .param("quantity", "10"))
+                .andReturn().getResponse();
+    }
+
+    private static MockHttpServletRequest jsonRequest(String idempotencyKey, String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/items");
+        request.addHeader(IdempotencyFilter.HEADER, idempotencyKey);
+        request.addHeader(HttpHeaders.ACCEPT, accept);
+        return request;
+    }
+}
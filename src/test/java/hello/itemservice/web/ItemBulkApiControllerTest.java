@@ -0,0 +1,90 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemBulkApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    void importNdjson() throws Exception {
+        String body = """
+                {"itemName":"bulkA","price":10000,"quantity":10}
+                {"itemName":"bulkB","price":10,"quantity":10}
+                {"itemName":"bulkC","price":1000,"quantity":1}
+                {"itemName":"bulkD","price":"abc","quantity":1}
+                """;
+
+        String result = mockMvc.perform(post("/validation/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = result.split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).contains("\"index\":0", "\"id\":").doesNotContain("errors");
+        assertThat(lines[1]).contains("\"index\":1", "\"field\":\"price\"", "\"code\":\"Range\"");
+        assertThat(lines[2]).contains("\"index\":2", "\"code\":\"totalPriceMin\"");
+        assertThat(lines[3]).contains("\"index\":3", "\"code\":\"typeMismatch\"");
+    }
+
+    @Test
+    void importCsvAndExport() throws Exception {
+        String body = """
+                itemName,price,quantity
+                "csv, item",20000,5
+                """;
+
+        String result = mockMvc.perform(post("/validation/api/items/bulk")
+                        .contentType("text/csv")
+                        .content(body))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(result).contains("\"id\":");
+
+        String exported = mockMvc.perform(get("/validation/api/items/export").param("format", "csv"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(exported).startsWith("id,itemName,price,quantity").contains("\"csv, item\",20000,5");
+    }
+
+    @Test
+    void exportCsvAndImportAgain() throws Exception {
+        //given : 쉼표, 따옴표, 줄바꿈(\n, \r, \r\n)이 들어간 상품명
+        List<String> names = List.of("roundtrip, comma", "roundtrip \"quote\"", "roundtrip\nLF", "roundtrip\rCR", "roundtrip\r\nCRLF");
+        names.forEach(name -> itemRepository.save(new Item(name, 10000, 10)));
+
+        //when : 내보낸 CSV 를 그대로 다시 등록한다
+        byte[] exported = mockMvc.perform(get("/validation/api/items/export").param("format", "csv"))
+                .andReturn().getResponse().getContentAsByteArray();
+        String result = mockMvc.perform(post("/validation/api/items/bulk")
+                        .contentType("text/csv")
+                        .content(exported))
+                .andReturn().getResponse().getContentAsString();
+
+        //then : 형식 오류 없이 같은 상품명으로 한번 더 저장된다
+        assertThat(result).doesNotContain("parseError");
+        List<String> expected = new ArrayList<>(names);
+        expected.addAll(names);
+        assertThat(itemRepository.findByItemNameStartingWith("roundtrip", ItemRepository.MAX_PAGE_SIZE))
+                .extracting(Item::itemName)
+                .containsExactlyInAnyOrderElementsOf(expected);
+    }
+}
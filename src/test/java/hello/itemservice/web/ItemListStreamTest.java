@@ -0,0 +1,53 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemListStreamTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    void stream() throws Exception {
+        //given : 한 묶음(100개)보다 많게 넣는다
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            items.add(new Item("streamItem" + i, 10000, 10));
+        }
+        itemRepository.saveAll(items);
+
+        //when
+        MvcResult result = mockMvc.perform(get("/validation/v4/items/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String html = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        //then
+        assertThat(html).startsWith("<!DOCTYPE").contains("<tbody>").endsWith("</html>");
+        assertThat(html).doesNotContain("item-rows");
+        assertThat(html.split("<tr>")).hasSize(1 + 1 + itemRepository.count()); //앞부분 + 제목 행 + 상품 행
+        assertThat(html.indexOf(">streamItem0<")).isLessThan(html.indexOf(">streamItem249<"));
+        assertThat(html.indexOf(">streamItem249<")).isLessThan(html.indexOf("</tbody>"));
+    }
+}
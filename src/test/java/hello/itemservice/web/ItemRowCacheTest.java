@@ -0,0 +1,68 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.fragment.ItemRowCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemRowCacheTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemRowCache itemRowCache;
+
+    @Test
+    void rows() throws Exception {
+        //given
+        Item item = itemRepository.save(new Item("rowItem", 10000, 10));
+        String url = "/validation/v3/items?after=" + (item.id() - 1) + "&size=1";
+
+        String first = mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+        ItemRowCache.Stats before = itemRowCache.stats();
+
+        //when : 같은 행은 다시 렌더링하지 않는다
+        String second = mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+        ItemRowCache.Stats after = itemRowCache.stats();
+
+        //then
+        assertThat(second).isEqualTo(first);
+        assertThat(first).contains("href=\"/validation/v3/items/" + item.id() + "\"", "rowItem");
+        assertThat(after.hits()).isEqualTo(before.hits() + 1);
+        assertThat(after.misses()).isEqualTo(before.misses());
+
+        //수정하면 version 이 바뀌어서 새로 렌더링한다
+        itemRepository.update(item.id(), new Item("rowItem2", 20000, 10));
+        String updated = mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+        assertThat(updated).contains("rowItem2").doesNotContain("rowItem<");
+        assertThat(itemRowCache.stats().misses()).isEqualTo(after.misses() + 1);
+    }
+
+    @Test
+    void rowsPerLocale() throws Exception {
+        //given
+        Item item = itemRepository.save(new Item("localeItem", 10000, 10));
+        String url = "/validation/v1/items?after=" + (item.id() - 1) + "&size=1";
+        mockMvc.perform(get(url).header("Accept-Language", "en"));
+        long misses = itemRowCache.stats().misses();
+
+        //when
+        mockMvc.perform(get(url).header("Accept-Language", "ko"));
+
+        //then
+        assertThat(itemRowCache.stats().misses()).isEqualTo(misses + 1);
+    }
+}
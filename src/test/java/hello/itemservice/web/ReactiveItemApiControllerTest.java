@@ -0,0 +1,118 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemPage;
+import hello.itemservice.domain.item.ItemRepository;
+import hello.itemservice.web.validation.form.ReactiveItemApiController;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactiveItemApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void addItem() throws Exception {
+        MvcResult created = mockMvc.perform(post("/validation/api/reactive/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"reactiveA\",\"price\":10000,\"quantity\":10}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(created))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("\"itemName\":\"reactiveA\"");
+
+        MvcResult invalid = mockMvc.perform(post("/validation/api/reactive/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"reactiveB\",\"price\":10,\"quantity\":10}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String errors = mockMvc.perform(asyncDispatch(invalid))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(errors).contains("\"code\":\"Range\"", "\"code\":\"totalPriceMin\"");
+    }
+
+    @Test
+    void itemNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(get("/validation/api/reactive/items/{itemId}", Long.MAX_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamItems() throws Exception {
+        MvcResult result = mockMvc.perform(get("/validation/api/reactive/items").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).isNotEmpty();
+        assertThat(lines[0]).startsWith("{\"id\":");
+    }
+
+    @Test
+    void slowSubscriberDoesNotReadAhead() throws Exception {
+        //given : 3 페이지 분량의 상품
+        AtomicInteger pageReads = new AtomicInteger();
+        ItemRepository itemRepository = new ItemRepository() {
+            @Override
+            public ItemPage findPage(Long afterId, Long beforeId, int size) {
+                pageReads.incrementAndGet();
+                return super.findPage(afterId, beforeId, size);
+            }
+        };
+        for (int i = 0; i < ItemRepository.MAX_PAGE_SIZE * 3; i++) {
+            itemRepository.save(new Item("slowItem", 10000, 10));
+        }
+        ReactiveItemApiController controller = new ReactiveItemApiController(itemRepository, null);
+
+        //when : 한건만 요청하고 더 요청하지 않는다
+        Semaphore received = new Semaphore(0);
+        BaseSubscriber<Item> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(Item item) {
+                received.release();
+            }
+        };
+        controller.items(null).subscribe(subscriber);
+
+        //then : 첫 페이지만 읽는다
+        assertThat(received.tryAcquire(1, 5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(pageReads).hasValue(1);
+
+        //두번째 페이지 중간까지 요청하면 두번째 페이지까지만 읽는다
+        subscriber.request(ItemRepository.MAX_PAGE_SIZE + 50 - 1);
+        assertThat(received.tryAcquire(ItemRepository.MAX_PAGE_SIZE + 50 - 1, 5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(pageReads).hasValue(2);
+        subscriber.dispose();
+    }
+}
@@ -0,0 +1,125 @@
+package hello.itemservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import hello.itemservice.web.validation.ValidationMode;
+import hello.itemservice.web.validation.form.BatchValidationResult;
+import hello.itemservice.web.validation.form.ItemSaveForm;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationItemApiControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void validateItems() throws Exception {
+        String body = """
+                [
+                  {"itemName":"itemA","price":10000,"quantity":10},
+                  {"itemName":"","price":10000,"quantity":10},
+                  {"itemName":"itemC","price":"abc","quantity":1},
+                  {"itemName":"itemD","price":1000,"quantity":1}
+                ]
+                """;
+
+        String result = mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(result).contains("\"total\":4", "\"invalid\":3");
+        assertThat(result).doesNotContain("\"index\":0");
+        assertThat(result).contains("{\"index\":1,\"field\":\"itemName\",\"code\":\"NotBlank\"");
+        assertThat(result).contains("{\"index\":2,\"field\":\"price\",\"code\":\"typeMismatch\"");
+        assertThat(result).contains("{\"index\":3,\"code\":\"totalPriceMin\"");
+        assertThat(result.indexOf("\"index\":1")).isLessThan(result.indexOf("\"index\":3"));
+    }
+
+    @Test
+    void validateItemsFailFast() throws Exception {
+        String body = """
+                [
+                  {"itemName":"","price":10,"quantity":10000},
+                  {"itemName":"itemB","price":"abc","quantity":10000}
+                ]
+                """;
+
+        String result = mockMvc.perform(post("/validation/api/items/validate")
+                        .header(ValidationMode.HEADER, "fail-fast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse().getContentAsString();
+
+        //상품마다 첫번째 오류 하나만 담긴다
+        assertThat(result).contains("\"invalid\":2");
+        assertThat(result.split("\"code\"")).hasSize(3);
+        assertThat(result).contains("{\"index\":1,\"field\":\"price\",\"code\":\"typeMismatch\"");
+    }
+
+    @Test
+    void validateItemsTooLarge() throws Exception {
+        //최대 건수를 넘으면 나머지를 읽지 않고 413
+        String item = "{\"itemName\":\"itemA\",\"price\":10000,\"quantity\":10}";
+        String body = "[" + String.join(",", Collections.nCopies(10_001, item)) + "]";
+
+        int status = mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn().getResponse().getStatus();
+
+        assertThat(status).isEqualTo(413);
+    }
+
+    @Test
+    void cbor() throws Exception {
+        //given
+        ObjectMapper cborMapper = new CBORMapper();
+        List<Map<String, Object>> forms = List.of(
+                Map.of("itemName", "itemA", "price", 10000, "quantity", 10),
+                Map.of("itemName", "", "price", 10000, "quantity", 10));
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+
+        //when : 같은 요청을 CBOR 와 JSON 으로 보낸다
+        MockHttpServletResponse cborResponse = mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(cbor)
+                        .accept(cbor)
+                        .content(cborMapper.writeValueAsBytes(forms)))
+                .andReturn().getResponse();
+        MockHttpServletResponse jsonResponse = mockMvc.perform(post("/validation/api/items/validate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsBytes(forms)))
+                .andReturn().getResponse();
+
+        //then : 내용은 같고 본문은 더 작다
+        assertThat(cborResponse.getContentType()).isEqualTo("application/cbor");
+        BatchValidationResult result = cborMapper.readValue(cborResponse.getContentAsByteArray(), BatchValidationResult.class);
+        assertThat(result).isEqualTo(new ObjectMapper().readValue(jsonResponse.getContentAsByteArray(), BatchValidationResult.class));
+        assertThat(result.invalid()).isEqualTo(1);
+        assertThat(result.errors().get(0).code()).isEqualTo("NotBlank");
+        assertThat(cborResponse.getContentAsByteArray().length).isLessThan(jsonResponse.getContentAsByteArray().length);
+
+        //단건 등록도 CBOR 로 주고 받는다
+        byte[] added = mockMvc.perform(post("/validation/api/items/add")
+                        .contentType(cbor)
+                        .accept(cbor)
+                        .content(cborMapper.writeValueAsBytes(forms.get(0))))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(cborMapper.readValue(added, ItemSaveForm.class).getItemName()).isEqualTo("itemA");
+    }
+}
@@ -0,0 +1,74 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * v1~v3 폼은 version 을 보내지 않는다. 바인딩 오류 없이 저장/수정되는지 확인한다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationItemControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"v1", "v2", "v3"})
+    void addItem(String version) throws Exception {
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/validation/{version}/items/add", version)
+                        .param("itemName", "addItem-" + version)
+                        .param("price", "10000")
+                        .param("quantity", "10"))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(302);
+        String location = response.getHeader(HttpHeaders.LOCATION);
+        assertThat(location).startsWith("/validation/" + version + "/items/").endsWith("?status=true");
+
+        long itemId = Long.parseLong(location.substring(location.lastIndexOf('/') + 1, location.indexOf('?')));
+        Item savedItem = itemRepository.findById(itemId);
+        assertThat(savedItem.itemName()).isEqualTo("addItem-" + version);
+        assertThat(savedItem.version()).isEqualTo(1L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"v1", "v2", "v3"})
+    void edit(String version) throws Exception {
+        //given
+        Long itemId = itemRepository.save(new Item("editItem-" + version, 10000, 10)).id();
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(post("/validation/{version}/items/{itemId}/edit", version, itemId)
+                        .param("id", itemId.toString())
+                        .param("itemName", "editedItem-" + version)
+                        .param("price", "20000")
+                        .param("quantity", "20"))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(response.getStatus()).isEqualTo(302);
+        assertThat(response.getHeader(HttpHeaders.LOCATION)).isEqualTo("/validation/" + version + "/items/" + itemId);
+
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.itemName()).isEqualTo("editedItem-" + version);
+        assertThat(findItem.price()).isEqualTo(20000);
+        assertThat(findItem.version()).isEqualTo(2L);
+    }
+}
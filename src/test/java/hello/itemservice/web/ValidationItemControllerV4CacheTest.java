@@ -0,0 +1,82 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationItemControllerV4CacheTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    void item() throws Exception {
+        //given
+        Item item = itemRepository.save(new Item("cacheItem", 10000, 10));
+        String url = "/validation/v4/items/" + item.id();
+
+        MockHttpServletResponse first = mockMvc.perform(get(url)).andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(etag).startsWith("\"item-" + item.id() + "-1-");
+        assertThat(first.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+        assertThat(first.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_LANGUAGE);
+
+        //when : 변경이 없으면 304, 본문 없음
+        MockHttpServletResponse notModified = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+
+        //then
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsString()).isEmpty();
+
+        //언어가 다르면 다른 ETag
+        MockHttpServletResponse korean = mockMvc.perform(get(url)
+                        .header(HttpHeaders.ACCEPT_LANGUAGE, "ko")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+        assertThat(korean.getStatus()).isEqualTo(200);
+
+        //수정하면 version 이 올라서 다시 렌더링한다
+        itemRepository.update(item.id(), new Item("cacheItem2", 20000, 10));
+        MockHttpServletResponse modified = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse();
+        assertThat(modified.getStatus()).isEqualTo(200);
+        assertThat(modified.getHeader(HttpHeaders.ETAG)).startsWith("\"item-" + item.id() + "-2-");
+        assertThat(modified.getContentAsString()).contains("cacheItem2");
+    }
+
+    @Test
+    void items() throws Exception {
+        //given
+        MockHttpServletResponse first = mockMvc.perform(get("/validation/v4/items")).andReturn().getResponse();
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        //when
+        int status = mockMvc.perform(get("/validation/v4/items").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+
+        //then
+        assertThat(status).isEqualTo(304);
+
+        //상품이 추가되면 catalogVersion 이 바뀐다
+        itemRepository.save(new Item("cacheItem", 10000, 10));
+        status = mockMvc.perform(get("/validation/v4/items").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+        assertThat(status).isEqualTo(200);
+    }
+}
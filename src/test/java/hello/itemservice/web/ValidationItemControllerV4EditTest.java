@@ -0,0 +1,78 @@
+package hello.itemservice.web;
+
+import hello.itemservice.domain.item.Item;
+import hello.itemservice.domain.item.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ValidationItemControllerV4EditTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    void editConflict() throws Exception {
+        //given : 두 사용자가 version 1 에서 수정 폼을 열었다
+        Long itemId = itemRepository.save(new Item("editItem", 10000, 10)).id();
+        MockHttpServletResponse first = edit(itemId, "editItemA", 1L);
+        assertThat(first.getStatus()).isEqualTo(302);
+
+        //when : 두번째 사용자가 예전 version 으로 저장한다
+        MockHttpServletResponse second = edit(itemId, "editItemB", 1L);
+
+        //then : 덮어쓰지 않고, 입력한 값과 최신 version 으로 폼을 다시 보여준다
+        assertThat(second.getStatus()).isEqualTo(409);
+        assertThat(second.getContentAsString())
+                .contains("다른 사용자가 먼저 상품을 수정했습니다")
+                .contains("value=\"editItemB\"")
+                .contains("name=\"version\" value=\"2\"");
+        assertThat(itemRepository.findById(itemId).itemName()).isEqualTo("editItemA");
+
+        //다시 저장하면 최신 version 이므로 수정된다
+        assertThat(edit(itemId, "editItemB", 2L).getStatus()).isEqualTo(302);
+        assertThat(itemRepository.findById(itemId).itemName()).isEqualTo("editItemB");
+    }
+
+    @Test
+    void editWithoutVersion() throws Exception {
+        //given
+        Long itemId = itemRepository.save(new Item("noVersionItem", 10000, 10)).id();
+
+        //when : version 없이 저장한다
+        MockHttpServletResponse response = mockMvc.perform(post("/validation/v4/items/{itemId}/edit", itemId)
+                        .param("id", itemId.toString())
+                        .param("itemName", "noVersionItemA")
+                        .param("price", "10000")
+                        .param("quantity", "10"))
+                .andReturn().getResponse();
+
+        //then : 덮어쓰지 않고 오류와 함께 폼을 다시 보여준다
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).contains("수정 폼을 다시 열어서 저장해주세요");
+        Item findItem = itemRepository.findById(itemId);
+        assertThat(findItem.itemName()).isEqualTo("noVersionItem");
+        assertThat(findItem.version()).isEqualTo(1L);
+    }
+
+    private MockHttpServletResponse edit(Long itemId, String itemName, long version) throws Exception {
+        return mockMvc.perform(post("/validation/v4/items/{itemId}/edit", itemId)
+                        .param("id", itemId.toString())
+                        .param("itemName", itemName)
+                        .param("price", "10000")
+                        .param("quantity", "10")
+                        .param("version", Long.toString(version)))
+                .andReturn().getResponse();
+    }
+}
@@ -0,0 +1,52 @@
+package hello.itemservice.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = "item.metrics.enabled=true")
+@AutoConfigureMockMvc
+class ValidationMetricsTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void validationMetrics() throws Exception {
+        mockMvc.perform(post("/validation/v4/items/add")
+                .param("itemName", " ")
+                .param("price", "10")
+                .param("quantity", "1"));
+
+        String endpoint = "ValidationItemControllerV4.addItem";
+        assertThat(registry.get("item.binding").tag("endpoint", endpoint).timer().count()).isGreaterThan(0);
+        assertThat(registry.get("item.validation").tag("endpoint", endpoint).timer().count()).isGreaterThan(0);
+        assertThat(registry.get("item.validation.errors").tags("endpoint", endpoint, "code", "NotBlank").counter().count()).isEqualTo(1);
+        assertThat(registry.get("item.validation.errors").tags("endpoint", endpoint, "code", "totalPriceMin").counter().count()).isEqualTo(1);
+        assertThat(registry.get("item.validation.rule").tag("rule", "totalPriceMin").timer().count()).isGreaterThan(0);
+
+        //@RequestBody 변환 시간도 같은 이름(빈 타입.메서드)으로 기록한다
+        mockMvc.perform(post("/validation/api/items/add")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemName\":\"itemA\",\"price\":10000,\"quantity\":10}"));
+        assertThat(registry.get("item.binding").tag("endpoint", "ValidationItemApiController.addItem").timer().count())
+                .isGreaterThan(0);
+
+        mockMvc.perform(get("/validation/v4/items"));
+        assertThat(registry.get("item.repository").tag("operation", "findPage").timer().count()).isGreaterThan(0);
+
+        String summary = mockMvc.perform(get("/actuator/validation"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(summary).contains(endpoint, "totalPriceMin");
+    }
+}
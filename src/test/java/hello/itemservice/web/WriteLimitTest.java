@@ -0,0 +1,160 @@
+package hello.itemservice.web;
+
+import hello.itemservice.web.ratelimit.TokenBucket;
+import hello.itemservice.web.ratelimit.WriteLimitFilter;
+import hello.itemservice.web.ratelimit.WriteLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+@SpringBootTest(properties = {
+        "item.write-limit.api.rate=10",
+        "item.write-limit.api.burst=5",
+        "item.write-limit.api.max-concurrent=4",
+        "item.client-header=X-Client-Id"})
+@AutoConfigureMockMvc
+class WriteLimitTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    WriteLimitFilter writeLimitFilter;
+
+    @Test
+    void rateLimit() throws Exception {
+        //given
+        long start = System.nanoTime();
+        int accepted = 0;
+        MockHttpServletResponse limited = null;
+
+        //when : 한 클라이언트가 burst(5) 보다 많이 보낸다
+        for (int i = 0; i < 30; i++) {
+            MockHttpServletResponse response = addItem("rate-client");
+            if (response.getStatus() == 200) {
+                accepted++;
+            } else {
+                limited = response;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        //then : burst + 지난 시간 동안 쌓인 토큰 만큼만 처리한다
+        assertThat(accepted).isBetween(5, 5 + (int) Math.ceil(seconds * 10));
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(limited.getContentAsString()).isEmpty();
+
+        //다른 클라이언트는 영향이 없다
+        assertThat(addItem("other-client").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shed() throws Exception {
+        //given : 이미 max-concurrent(4) 개를 처리하고 있다
+        WriteLimiter api = limiter("api");
+        for (int i = 0; i < 4; i++) {
+            assertThat(api.acquire("busy-client-" + i)).isEqualTo(WriteLimiter.Outcome.ACCEPTED);
+        }
+
+        //when
+        MockHttpServletResponse shed = addItem("shed-client");
+
+        //then : 기다리지 않고 503
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        for (int i = 0; i < 4; i++) {
+            api.release();
+        }
+        assertThat(addItem("shed-client").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void evictIdle() {
+        //given : 초당 1개, burst 1, 클라이언트 최대 2개
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(1, 1, 2, clock::get);
+        assertThat(bucket.tryAcquire("a")).isZero();
+        assertThat(bucket.tryAcquire("b")).isZero();
+
+        //when : 가득 찬 상태의 새 클라이언트는 정리 전까지 공용 버킷을 쓴다 (요청 스레드에서 훑지 않는다)
+        assertThat(bucket.tryAcquire("c")).isZero();
+        assertThat(bucket.tryAcquire("d")).isPositive();
+        assertThat(bucket.clients()).isEqualTo(3);
+
+        //then : TAT 가 지난 버킷은 백그라운드 정리에서 지운다
+        assertThat(bucket.evictIdle()).isZero();
+        clock.addAndGet(1_000_000_000L);
+        assertThat(bucket.evictIdle()).isEqualTo(3);
+        assertThat(bucket.clients()).isZero();
+        assertThat(bucket.tryAcquire("d")).isZero();
+    }
+
+    /**
+     * 동시에 몰려도 모든 요청이 허용 / 거절 중 하나로 세어지고, 처리 중 수가 0 으로 돌아온다
+     * 지연 시간은 load.WriteLimitLoadTest (./gradlew loadTest) 에서 본다
+     */
+    @Test
+    void overload() throws Exception {
+        //given
+        WriteLimiter api = limiter("api");
+        long accepted = api.getAccepted();
+        long rejected = api.getRateLimited() + api.getShed();
+        int threads = 16;
+        int requestsPerThread = 100;
+
+        //when : 클라이언트 4개가 16 스레드로 동시에 보낸다
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                String client = "overload-client-" + (t % 4);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        assertThat(addItem(client).getStatus()).isIn(200, 429, 503);
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        //then
+        long acceptedNow = api.getAccepted() - accepted;
+        long rejectedNow = api.getRateLimited() + api.getShed() - rejected;
+        assertThat(acceptedNow + rejectedNow).isEqualTo(threads * requestsPerThread);
+        assertThat(rejectedNow).isGreaterThan(acceptedNow);
+        assertThat(api.getInFlight()).isZero();
+    }
+
+    private WriteLimiter limiter(String name) {
+        return writeLimitFilter.getLimiters().stream()
+                .filter(limiter -> limiter.getName().equals(name))
+                .findFirst().orElseThrow();
+    }
+
+    private MockHttpServletResponse addItem(String client) throws Exception {
+        return mockMvc.perform(post("/validation/api/items/add")
+                        .header("X-Client-Id", client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"itemName\":\"itemA\",\"price\":10000,\"quantity\":10}"))
+                .andReturn().getResponse();
+    }
+}